@@ -0,0 +1,16 @@
+package com.vaadin.guice.benchmark;
+
+import com.vaadin.guice.annotation.ForUI;
+import com.vaadin.guice.annotation.GuiceView;
+import com.vaadin.navigator.View;
+import com.vaadin.navigator.ViewChangeListener;
+import com.vaadin.ui.CustomComponent;
+
+@GuiceView("admin")
+@ForUI(WidgetUI.class)
+public class AdminView extends CustomComponent implements View {
+
+    @Override
+    public void enter(ViewChangeListener.ViewChangeEvent event) {
+    }
+}
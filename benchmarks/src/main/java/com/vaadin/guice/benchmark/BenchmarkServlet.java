@@ -0,0 +1,8 @@
+package com.vaadin.guice.benchmark;
+
+import com.vaadin.guice.annotation.PackagesToScan;
+import com.vaadin.guice.server.GuiceVaadinServlet;
+
+@PackagesToScan("com.vaadin.guice.benchmark")
+public class BenchmarkServlet extends GuiceVaadinServlet {
+}
@@ -0,0 +1,13 @@
+package com.vaadin.guice.benchmark;
+
+import com.vaadin.guice.annotation.GuiceUI;
+import com.vaadin.server.VaadinRequest;
+import com.vaadin.ui.UI;
+
+@GuiceUI(content = Content.class, viewContainer = ViewContainer.class)
+public class BenchmarkUI extends UI {
+
+    @Override
+    protected void init(VaadinRequest request) {
+    }
+}
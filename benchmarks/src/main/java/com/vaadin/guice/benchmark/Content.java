@@ -0,0 +1,16 @@
+package com.vaadin.guice.benchmark;
+
+import com.google.inject.Inject;
+
+import com.vaadin.guice.annotation.UIScope;
+import com.vaadin.ui.VerticalLayout;
+
+@UIScope
+public class Content extends VerticalLayout {
+
+    @Inject
+    private UIScopedService uiScopedService;
+
+    @Inject
+    private SessionScopedService sessionScopedService;
+}
@@ -0,0 +1,13 @@
+package com.vaadin.guice.benchmark;
+
+import com.vaadin.guice.annotation.GuiceUI;
+import com.vaadin.server.VaadinRequest;
+import com.vaadin.ui.UI;
+
+@GuiceUI(path = "lazy", content = Content.class, viewContainer = ViewContainer.class, lazyNavigator = true)
+public class LazyNavigatorUI extends UI {
+
+    @Override
+    protected void init(VaadinRequest request) {
+    }
+}
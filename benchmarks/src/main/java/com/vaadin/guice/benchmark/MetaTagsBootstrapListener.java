@@ -0,0 +1,28 @@
+package com.vaadin.guice.benchmark;
+
+import com.vaadin.guice.annotation.SharedAcrossSessions;
+import com.vaadin.server.BootstrapFragmentResponse;
+import com.vaadin.server.BootstrapListener;
+import com.vaadin.server.BootstrapPageResponse;
+
+import javax.inject.Inject;
+
+@SharedAcrossSessions
+public class MetaTagsBootstrapListener implements BootstrapListener {
+
+    private final ResourceResolver resourceResolver;
+
+    @Inject
+    public MetaTagsBootstrapListener(ResourceResolver resourceResolver) {
+        this.resourceResolver = resourceResolver;
+    }
+
+    @Override
+    public void modifyBootstrapFragment(BootstrapFragmentResponse response) {
+    }
+
+    @Override
+    public void modifyBootstrapPage(BootstrapPageResponse response) {
+        response.getDocument().head().appendElement("meta").attr("name", "resources").attr("content", resourceResolver.resolve("/resources/0"));
+    }
+}
@@ -0,0 +1,14 @@
+package com.vaadin.guice.benchmark;
+
+import com.vaadin.guice.annotation.GuiceView;
+import com.vaadin.navigator.View;
+import com.vaadin.navigator.ViewChangeListener;
+import com.vaadin.ui.CustomComponent;
+
+@GuiceView("reports")
+public class ReportsView extends CustomComponent implements View {
+
+    @Override
+    public void enter(ViewChangeListener.ViewChangeEvent event) {
+    }
+}
@@ -0,0 +1,25 @@
+package com.vaadin.guice.benchmark;
+
+import com.vaadin.guice.annotation.SharedAcrossSessions;
+import com.vaadin.server.RequestHandler;
+import com.vaadin.server.VaadinRequest;
+import com.vaadin.server.VaadinResponse;
+import com.vaadin.server.VaadinSession;
+
+import javax.inject.Inject;
+
+@SharedAcrossSessions
+public class ResourceRequestHandler implements RequestHandler {
+
+    private final ResourceResolver resourceResolver;
+
+    @Inject
+    public ResourceRequestHandler(ResourceResolver resourceResolver) {
+        this.resourceResolver = resourceResolver;
+    }
+
+    @Override
+    public boolean handleRequest(VaadinSession session, VaadinRequest request, VaadinResponse response) {
+        return resourceResolver.resolve(request.getPathInfo()) != null;
+    }
+}
@@ -0,0 +1,19 @@
+package com.vaadin.guice.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class ResourceResolver {
+
+    private final Map<String, String> resources = new HashMap<>();
+
+    public ResourceResolver() {
+        for (int i = 0; i < 32; i++) {
+            resources.put("/resources/" + i, "resource" + i);
+        }
+    }
+
+    String resolve(String path) {
+        return resources.get(path);
+    }
+}
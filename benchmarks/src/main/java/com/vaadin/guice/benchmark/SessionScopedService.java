@@ -0,0 +1,7 @@
+package com.vaadin.guice.benchmark;
+
+import com.vaadin.guice.annotation.VaadinSessionScope;
+
+@VaadinSessionScope
+public class SessionScopedService {
+}
@@ -0,0 +1,7 @@
+package com.vaadin.guice.benchmark;
+
+import com.vaadin.guice.annotation.UIScope;
+
+@UIScope
+public class UIScopedService {
+}
@@ -0,0 +1,8 @@
+package com.vaadin.guice.benchmark;
+
+import com.vaadin.guice.annotation.UIScope;
+import com.vaadin.ui.Panel;
+
+@UIScope
+public class ViewContainer extends Panel {
+}
@@ -0,0 +1,13 @@
+package com.vaadin.guice.benchmark;
+
+import com.vaadin.guice.annotation.GuiceUI;
+import com.vaadin.server.VaadinRequest;
+import com.vaadin.ui.UI;
+
+@GuiceUI(path = "widget", content = Content.class)
+public class WidgetUI extends UI {
+
+    @Override
+    protected void init(VaadinRequest request) {
+    }
+}
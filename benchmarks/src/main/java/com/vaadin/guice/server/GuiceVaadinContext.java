@@ -0,0 +1,70 @@
+package com.vaadin.guice.server;
+
+import com.vaadin.guice.benchmark.BenchmarkServlet;
+import com.vaadin.guice.benchmark.BenchmarkUI;
+import com.vaadin.server.UICreateEvent;
+import com.vaadin.server.VaadinRequest;
+import com.vaadin.server.VaadinService;
+import com.vaadin.server.VaadinSession;
+import com.vaadin.ui.UI;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Collections;
+
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletException;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * a started {@link GuiceVaadinServlet} with a mocked {@link VaadinSession} and a {@link
+ * BenchmarkUI} that are current on the benchmark's thread, the same way the unit-tests mock them
+ */
+@State(Scope.Thread)
+public class GuiceVaadinContext {
+
+    GuiceVaadinServlet servlet;
+    VaadinRequest request;
+
+    //CurrentInstance only keeps weak references, so session and UI are held here
+    VaadinSession session;
+    BenchmarkUI ui;
+
+    @Setup
+    public void setUp() throws ServletException {
+        servlet = new BenchmarkServlet();
+        servlet.init(servletConfig());
+
+        session = mock(VaadinSession.class);
+        VaadinSession.setCurrent(session);
+
+        request = mock(VaadinRequest.class);
+        when(request.getService()).thenReturn(mock(VaadinService.class));
+
+        ui = (BenchmarkUI) servlet.getGuiceUIProvider().createInstance(new UICreateEvent(request, BenchmarkUI.class));
+        UI.setCurrent(ui);
+    }
+
+    @TearDown
+    public void tearDown() {
+        UI.setCurrent(null);
+        VaadinSession.setCurrent(null);
+    }
+
+    static ServletConfig servletConfig() {
+        final ServletConfig servletConfig = mock(ServletConfig.class);
+        final ServletContext servletContext = mock(ServletContext.class);
+
+        when(servletConfig.getServletContext()).thenReturn(servletContext);
+        when(servletConfig.getInitParameterNames()).thenReturn(Collections.emptyEnumeration());
+        when(servletContext.getInitParameterNames()).thenReturn(Collections.emptyEnumeration());
+
+        return servletConfig;
+    }
+}
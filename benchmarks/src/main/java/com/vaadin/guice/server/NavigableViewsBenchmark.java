@@ -0,0 +1,39 @@
+package com.vaadin.guice.server;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * the providers behind {@link com.vaadin.guice.annotation.NavigableViewClasses}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class NavigableViewsBenchmark {
+
+    private NavigableViewsProvider navigableViewsProvider;
+    private NavigableViewsWithMappingProvider navigableViewsWithMappingProvider;
+
+    @Setup
+    public void setUp(GuiceVaadinContext context) {
+        navigableViewsProvider = new NavigableViewsProvider(context.servlet);
+        navigableViewsWithMappingProvider = new NavigableViewsWithMappingProvider(context.servlet);
+    }
+
+    @Benchmark
+    public Object navigableViews() {
+        return navigableViewsProvider.get();
+    }
+
+    @Benchmark
+    public Object navigableViewsWithMapping() {
+        return navigableViewsWithMappingProvider.get();
+    }
+}
@@ -0,0 +1,86 @@
+package com.vaadin.guice.server;
+
+import com.google.inject.Key;
+import com.google.inject.Provider;
+
+import com.vaadin.guice.benchmark.BenchmarkUI;
+import com.vaadin.guice.benchmark.SessionScopedService;
+import com.vaadin.guice.benchmark.UIScopedService;
+import com.vaadin.server.VaadinSession;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * scoped {@link Provider#get()} of {@link UIScope} and {@link VaadinSessionScope}, with the instance
+ * already present (hit) or to be provisioned (miss)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class ScopeBenchmark {
+
+    private Provider<UIScopedService> uiScoped;
+    private Provider<SessionScopedService> sessionScoped;
+    private UIScope uiScope;
+
+    @Setup
+    public void setUp(GuiceVaadinContext context) {
+        uiScope = context.servlet.getUiScoper();
+        uiScoped = uiScope.scope(Key.get(UIScopedService.class), UIScopedService::new);
+        sessionScoped = context.servlet.getVaadinSessionScoper().scope(Key.get(SessionScopedService.class), SessionScopedService::new);
+    }
+
+    @Benchmark
+    public Object uiScopeHit() {
+        return uiScoped.get();
+    }
+
+    /*
+     * every UI-scope starts empty while it's UI is constructed
+     */
+    @Benchmark
+    public Object uiScopeMiss() {
+        uiScope.startScopeInit(BenchmarkUI.class);
+
+        try {
+            return uiScoped.get();
+        } finally {
+            uiScope.endScopeInit();
+        }
+    }
+
+    @Benchmark
+    public Object sessionScopeHit() {
+        return sessionScoped.get();
+    }
+
+    /*
+     * a fresh session per invocation, Level.Invocation's overhead is included in the result
+     */
+    @Benchmark
+    public Object sessionScopeMiss(FreshSession freshSession) {
+        return sessionScoped.get();
+    }
+
+    @State(Scope.Thread)
+    public static class FreshSession {
+        VaadinSession session;
+
+        @Setup(Level.Invocation)
+        public void setUp(GuiceVaadinContext context) {
+            session = mock(VaadinSession.class);
+            VaadinSession.setCurrent(session);
+        }
+    }
+}
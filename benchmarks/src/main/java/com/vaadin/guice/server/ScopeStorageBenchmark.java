@@ -0,0 +1,87 @@
+package com.vaadin.guice.server;
+
+import com.google.common.collect.MapMaker;
+import com.google.inject.Key;
+import com.google.inject.Provider;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.inject.name.Names.named;
+
+/**
+ * multi-threaded lookup throughput of the former storage of the scopes, a {@link WeakHashMap} that
+ * needs to be guarded by a lock to be thread-safe, and the lock-free {@link ScopeMap}s behind a
+ * weak-keyed concurrent map. Run with '-t' to change the number of threads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(Threads.MAX)
+public class ScopeStorageBenchmark {
+
+    private static final int SESSIONS = 1_000;
+    private static final int KEYS_PER_SESSION = 20;
+
+    private static final Provider<Object> provider = Object::new;
+
+    @State(Scope.Benchmark)
+    public static class Storage {
+        final Object[] sessions = new Object[SESSIONS];
+
+        @SuppressWarnings("unchecked")
+        final Key<Object>[] keys = new Key[KEYS_PER_SESSION];
+
+        final Map<Object, Map<Key<?>, Object>> weakHashMap = Collections.synchronizedMap(new WeakHashMap<>());
+
+        final ConcurrentMap<Object, ScopeMap> concurrentMap = new MapMaker().weakKeys().makeMap();
+
+        final ScopeMap.Statistics statistics = new ScopeMap.Statistics("benchmark");
+
+        @Setup
+        public void setUp() {
+            for (int i = 0; i < SESSIONS; i++) {
+                sessions[i] = new Object();
+            }
+
+            for (int i = 0; i < KEYS_PER_SESSION; i++) {
+                keys[i] = Key.get(Object.class, named("key" + i));
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int i;
+    }
+
+    @Benchmark
+    public Object synchronizedWeakHashMap(Storage storage, Cursor cursor) {
+        final int i = cursor.i++;
+
+        return storage.weakHashMap
+                .computeIfAbsent(storage.sessions[i % SESSIONS], s -> new HashMap<>())
+                .computeIfAbsent(storage.keys[i % KEYS_PER_SESSION], k -> provider.get());
+    }
+
+    @Benchmark
+    public Object concurrentScopeMap(Storage storage, Cursor cursor) {
+        final int i = cursor.i++;
+
+        return storage.concurrentMap
+                .computeIfAbsent(storage.sessions[i % SESSIONS], s -> new ScopeMap(storage.statistics))
+                .get(storage.keys[i % KEYS_PER_SESSION], provider);
+    }
+}
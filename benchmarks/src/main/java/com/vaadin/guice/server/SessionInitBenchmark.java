@@ -0,0 +1,63 @@
+package com.vaadin.guice.server;
+
+import com.vaadin.server.ServiceException;
+import com.vaadin.server.SessionInitEvent;
+import com.vaadin.server.VaadinService;
+import com.vaadin.server.VaadinSession;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * {@link GuiceVaadinServlet#sessionInit(SessionInitEvent)} as called for every new session, run
+ * with '-prof gc' to see the allocations per session
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class SessionInitBenchmark {
+
+    private VaadinService service;
+
+    @Setup
+    public void setUp() {
+        service = mock(VaadinService.class);
+    }
+
+    @Benchmark
+    public Object sessionInit(GuiceVaadinContext context) throws ServiceException {
+        final VaadinSession session = new LockedSession(service);
+
+        context.servlet.sessionInit(new SessionInitEvent(service, session, context.request));
+
+        return session;
+    }
+
+    /*
+     * session-attributes can only be accessed with the session's lock held
+     */
+    private static final class LockedSession extends VaadinSession {
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private LockedSession(VaadinService service) {
+            super(service);
+            lock.lock();
+        }
+
+        @Override
+        public Lock getLockInstance() {
+            return lock;
+        }
+    }
+}
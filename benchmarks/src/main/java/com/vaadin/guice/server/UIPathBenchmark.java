@@ -0,0 +1,76 @@
+package com.vaadin.guice.server;
+
+import com.vaadin.guice.benchmark.BenchmarkUI;
+import com.vaadin.guice.benchmark.WidgetUI;
+import com.vaadin.ui.UI;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * path-resolution of {@link GuiceUIProvider#getUIClass(com.vaadin.server.UIClassSelectionEvent)}
+ * with a few hundred mapped UIs. Compiling hundreds of UI-classes is not worth it here, so the
+ * paths are mapped to the same two classes; the lookup does not depend on the mapped class.
+ * {@link #hashMap()} is the former substring/toLowerCase/ConcurrentHashMap lookup.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class UIPathBenchmark {
+
+    @Param({"10", "300"})
+    public int uis;
+
+    @Param({"/Module7/Page3", "/module7/page3/!#orders/42", "/unmapped"})
+    public String pathInfo;
+
+    private PathTrie<Class<? extends UI>> pathTrie;
+    private final Map<String, Class<? extends UI>> pathMap = new ConcurrentHashMap<>();
+
+    @Setup
+    public void setUp() {
+        final PathTrie.Builder<Class<? extends UI>> builder = PathTrie.builder();
+
+        for (int i = 0; i < uis; i++) {
+            final String path = "/module" + (i / 10) + "/page" + (i % 10);
+            final Class<? extends UI> uiClass = i % 2 == 0 ? BenchmarkUI.class : WidgetUI.class;
+
+            builder.putIfAbsent(path, uiClass);
+            pathMap.put(path, uiClass);
+        }
+
+        pathTrie = builder.build();
+    }
+
+    @Benchmark
+    public Object pathTrie() {
+        final int indexOfBang = pathInfo.indexOf('!');
+
+        return pathTrie.longestMatch(pathInfo, indexOfBang > -1 ? indexOfBang : pathInfo.length());
+    }
+
+    @Benchmark
+    public Object hashMap() {
+        String path = pathInfo;
+
+        final int indexOfBang = path.indexOf('!');
+
+        if (indexOfBang > -1) {
+            path = path.substring(0, indexOfBang);
+        } else if (path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+
+        return pathMap.get(path.toLowerCase());
+    }
+}
@@ -0,0 +1,66 @@
+package com.vaadin.guice.server;
+
+import com.vaadin.guice.benchmark.BenchmarkUI;
+import com.vaadin.server.UIClassSelectionEvent;
+import com.vaadin.server.UICreateEvent;
+import com.vaadin.server.VaadinRequest;
+import com.vaadin.server.VaadinService;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link GuiceUIProvider} as called on every UI-bootstrap request
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class UIProviderBenchmark {
+
+    private UIClassSelectionEvent selectionEvent;
+    private UICreateEvent createEvent;
+
+    @Setup
+    public void setUp(GuiceVaadinContext context) {
+        selectionEvent = new UIClassSelectionEvent(request("/Widget/", context.request.getService()));
+        createEvent = new UICreateEvent(context.request, BenchmarkUI.class);
+    }
+
+    /*
+     * a mocked request's stubbing costs more than the path-resolution that is measured here
+     */
+    static VaadinRequest request(String pathInfo, VaadinService service) {
+        return (VaadinRequest) Proxy.newProxyInstance(
+                VaadinRequest.class.getClassLoader(),
+                new Class[]{VaadinRequest.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getPathInfo":
+                            return pathInfo;
+                        case "getService":
+                            return service;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                }
+        );
+    }
+
+    @Benchmark
+    public Object getUIClass(GuiceVaadinContext context) {
+        return context.servlet.getGuiceUIProvider().getUIClass(selectionEvent);
+    }
+
+    @Benchmark
+    public Object createInstance(GuiceVaadinContext context) {
+        return context.servlet.getGuiceUIProvider().createInstance(createEvent);
+    }
+}
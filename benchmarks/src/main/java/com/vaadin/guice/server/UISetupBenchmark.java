@@ -0,0 +1,95 @@
+package com.vaadin.guice.server;
+
+import com.google.inject.Binding;
+import com.google.inject.spi.DependencyAndSource;
+import com.google.inject.spi.ProvisionListener.ProvisionInvocation;
+
+import com.vaadin.guice.benchmark.BenchmarkUI;
+import com.vaadin.guice.benchmark.LazyNavigatorUI;
+import com.vaadin.guice.benchmark.WidgetUI;
+import com.vaadin.ui.UI;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * {@link UISetup#onProvision(ProvisionInvocation)} for a UI with a navigator, one whose navigator
+ * is initialized lazily and one with content only. The UI-scope is fresh on every invocation, like it is while a UI is created.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class UISetupBenchmark {
+
+    private UISetup uiSetup;
+    private UIScope uiScope;
+
+    @Setup
+    public void setUp(GuiceVaadinContext context) {
+        uiSetup = new UISetup(context.servlet);
+        uiSetup.resolveProviders(context.servlet.getInjector());
+        uiScope = context.servlet.getUiScoper();
+    }
+
+    @Benchmark
+    public Object navigatorUI() {
+        return onProvision(BenchmarkUI.class, BenchmarkUI::new);
+    }
+
+    @Benchmark
+    public Object lazyNavigatorUI() {
+        return onProvision(LazyNavigatorUI.class, LazyNavigatorUI::new);
+    }
+
+    @Benchmark
+    public Object contentOnlyUI() {
+        return onProvision(WidgetUI.class, WidgetUI::new);
+    }
+
+    private UI onProvision(Class<? extends UI> uiClass, Supplier<UI> uiSupplier) {
+        uiScope.startScopeInit(uiClass);
+
+        try {
+            final UI ui = uiSupplier.get();
+
+            uiSetup.onProvision(new FixedProvisionInvocation(ui));
+
+            return ui;
+        } finally {
+            uiScope.endScopeInit();
+        }
+    }
+
+    private static final class FixedProvisionInvocation extends ProvisionInvocation<UI> {
+        private final UI ui;
+
+        private FixedProvisionInvocation(UI ui) {
+            this.ui = ui;
+        }
+
+        @Override
+        public Binding<UI> getBinding() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public UI provision() {
+            return ui;
+        }
+
+        @Override
+        public List<DependencyAndSource> getDependencyChain() {
+            return Collections.emptyList();
+        }
+    }
+}
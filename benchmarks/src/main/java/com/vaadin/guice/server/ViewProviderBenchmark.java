@@ -0,0 +1,32 @@
+package com.vaadin.guice.server;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link GuiceViewProvider} as called by the {@link com.vaadin.navigator.Navigator} on every
+ * navigation
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ViewProviderBenchmark {
+
+    @Benchmark
+    public String getViewName(GuiceVaadinContext context) {
+        return context.servlet.getViewProvider().getViewName("Reports/2017/q4");
+    }
+
+    @Benchmark
+    public String getViewNameUnknown(GuiceVaadinContext context) {
+        return context.servlet.getViewProvider().getViewName("unknown/2017/q4");
+    }
+
+    @Benchmark
+    public Object getView(GuiceVaadinContext context) {
+        return context.servlet.getViewProvider().getView("reports");
+    }
+}
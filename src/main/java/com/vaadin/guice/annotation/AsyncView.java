@@ -0,0 +1,32 @@
+package com.vaadin.guice.annotation;
+
+import com.vaadin.ui.Component;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation to be placed on {@link GuiceView}-classes that are slow to build, for example because
+ * they load data in their constructor. Navigating to such a view displays a placeholder at once,
+ * the view is built in the background with the UI-scope of the navigation and replaces the
+ * placeholder once it is ready. The session is not locked while the view is built, so it must not
+ * access other components than its own. UIs without push are polled until the view is displayed.
+ * <pre>
+ * &#064;GuiceView("reports")
+ * &#064;AsyncView(placeholder = ReportsSkeleton.class)
+ * public class ReportsView extends CustomComponent implements View {
+ *     // ...
+ * }
+ * </pre>
+ */
+@Target({java.lang.annotation.ElementType.TYPE})
+@Retention(java.lang.annotation.RetentionPolicy.RUNTIME)
+@Documented
+public @interface AsyncView {
+
+    /**
+     * the component displayed while the view is built, an indeterminate progress-bar if not set
+     */
+    Class<? extends Component> placeholder() default Component.class;
+}
@@ -0,0 +1,36 @@
+package com.vaadin.guice.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Annotation to be placed on {@link GuiceView}-classes that are to be kept by their UI after they
+ * have been left, so navigating back to them reuses the already built view. Cached views do not
+ * count towards {@link RetainedViews}, they are released once they have not been displayed for
+ * {@link #maxIdle()}, or when more than {@link MaxCachedViews} cached views have been left, the
+ * least recently used first. Every UI holds at most one instance of every view. <p> There is no
+ * timer, both limits are checked when the UI navigates. A UI that does not navigate anymore keeps
+ * it's cached views until it is closed.
+ * <pre>
+ * &#064;GuiceView("reports")
+ * &#064;CachedView(maxIdle = 10, unit = TimeUnit.MINUTES)
+ * public class ReportsView extends CustomComponent implements View {
+ *     // ...
+ * }
+ * </pre>
+ */
+@Target({java.lang.annotation.ElementType.TYPE})
+@Retention(java.lang.annotation.RetentionPolicy.RUNTIME)
+@Documented
+public @interface CachedView {
+
+    /**
+     * how long the view is kept after it has been left, 10 minutes if not set. 0 keeps it as long
+     * as the UI exists, unless it is released because of {@link MaxCachedViews}
+     */
+    long maxIdle() default 10;
+
+    TimeUnit unit() default TimeUnit.MINUTES;
+}
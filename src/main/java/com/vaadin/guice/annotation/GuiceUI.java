@@ -67,6 +67,15 @@ public @interface GuiceUI {
      */
     Class<? extends GuiceNavigator> navigator() default GuiceNavigator.class;
 
+    /**
+     * if true, the view-container, the error-view and the view-change-listeners are not created
+     * along with the UI but on the first navigation or the first change of the uri-fragment. UIs
+     * opened without a uri-fragment do not navigate to the default-view then, which suits embedded
+     * UIs that rarely navigate. Until then, the navigator's {@link Navigator#getState()} returns
+     * null and it has no current view.
+     */
+    boolean lazyNavigator() default false;
+
     /**
      * the error-View
      *
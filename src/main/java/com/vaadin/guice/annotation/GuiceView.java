@@ -10,7 +10,8 @@ import java.lang.annotation.Target;
 
 /**
  * Annotation to be placed on {@link com.vaadin.navigator.View}-classes that should be handled by
- * the {@link com.vaadin.navigator.ViewProvider}. <p>
+ * the {@link com.vaadin.navigator.ViewProvider}. A view is created when it is navigated to and
+ * kept by it's UI, unless {@link RetainedViews} limits the number of left views that are kept. <p>
  * <pre>
  * &#064;GuiceView(&quot;&quot;)
  * public class MyDefaultView extends CustomComponent implements View {
@@ -0,0 +1,36 @@
+package com.vaadin.guice.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Annotation to be placed on {@link com.vaadin.navigator.ViewChangeListener}s whose
+ * beforeViewChange does not depend on other listeners, like permission- or feature-flag-checks that
+ * call a backend. The GuiceNavigator evaluates these guards concurrently on the {@link
+ * com.vaadin.guice.server.ScopedExecutor} while the other listeners are called one after another
+ * as usual. Guards have threads of their own, so they do not wait for the session's or any other
+ * background-tasks. If all of these threads are busy, a guard is evaluated by the navigating
+ * request itself. A navigation is vetoed if any guard vetoes or does not decide within its timeout. Guards
+ * do not hold the session-lock, so they must not access components.
+ * <pre>
+ * &#064;IndependentGuard(timeout = 2, unit = TimeUnit.SECONDS)
+ * public class PermissionGuard implements ViewChangeListener {
+ *     // ...
+ * }
+ * </pre>
+ */
+@Target({java.lang.annotation.ElementType.TYPE})
+@Retention(java.lang.annotation.RetentionPolicy.RUNTIME)
+@Documented
+public @interface IndependentGuard {
+
+    /**
+     * how long the navigation waits for the guard before vetoing, must be positive. The time counts
+     * from when the other listeners have approved the navigation, the guard may have started before
+     */
+    long timeout() default 5;
+
+    TimeUnit unit() default TimeUnit.SECONDS;
+}
@@ -0,0 +1,34 @@
+package com.vaadin.guice.annotation;
+
+import com.google.inject.Stage;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation to be placed on a {@link com.vaadin.guice.server.GuiceVaadinServlet}-subclass to
+ * choose the {@link Stage} of the injector. The same can be achieved with the
+ * 'injectorStage'-initParam, using the name of a {@link Stage}.
+ * <pre>
+ * &#064;PackagesToScan("org.mycompany.ui")
+ * &#064;InjectorStage(Stage.PRODUCTION)
+ * public class MyServlet extends GuiceVaadinServlet {
+ * }
+ * </pre>
+ * In {@link Stage#PRODUCTION}, all singletons are created before the servlet takes requests, like
+ * guice does in this stage. Other than guice, the servlet creates them in parallel, every singleton
+ * as soon as the singletons it depends on are created. This happens while the injector is created,
+ * so the modules and the injector see the configured {@link Stage}. {@link Stage#TOOL} is not
+ * supported.
+ */
+@Target({java.lang.annotation.ElementType.TYPE})
+@Retention(java.lang.annotation.RetentionPolicy.RUNTIME)
+@Documented
+public @interface InjectorStage {
+
+    /**
+     * the stage of the injector, {@link Stage#DEVELOPMENT} if not set
+     */
+    Stage value();
+}
@@ -0,0 +1,30 @@
+package com.vaadin.guice.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation to be placed on a {@link com.vaadin.guice.server.GuiceVaadinServlet}-subclass to
+ * limit the number of left {@link CachedView}s every UI keeps. When more views have been left,
+ * the least recently used ones are released on the next navigation of the UI. The same can be
+ * achieved with the 'maxCachedViews'-initParam.
+ * <pre>
+ * &#064;PackagesToScan("org.mycompany.ui")
+ * &#064;MaxCachedViews(5)
+ * public class MyServlet extends GuiceVaadinServlet {
+ * }
+ * </pre>
+ *
+ * @see CachedView
+ */
+@Target({java.lang.annotation.ElementType.TYPE})
+@Retention(java.lang.annotation.RetentionPolicy.RUNTIME)
+@Documented
+public @interface MaxCachedViews {
+
+    /**
+     * how many left cached views every UI keeps at most, 10 if not set
+     */
+    int value();
+}
@@ -0,0 +1,30 @@
+package com.vaadin.guice.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation to be placed on a {@link com.vaadin.guice.server.GuiceVaadinServlet}-subclass to
+ * measure how long every dependency takes to be provisioned while UIs and views are created. If a
+ * UI or view takes longer than the threshold, it's slowest chain of dependencies is logged. The
+ * same can be achieved with the 'provisionProfilingThreshold'-initParam, given in milliseconds.
+ * <pre>
+ * &#064;PackagesToScan("org.mycompany.ui")
+ * &#064;ProvisionProfiling(thresholdMillis = 200)
+ * public class MyServlet extends GuiceVaadinServlet {
+ * }
+ * </pre>
+ *
+ * @see com.vaadin.guice.server.GuiceVaadinServlet#getProvisionProfiler()
+ */
+@Target({java.lang.annotation.ElementType.TYPE})
+@Retention(java.lang.annotation.RetentionPolicy.RUNTIME)
+@Documented
+public @interface ProvisionProfiling {
+
+    /**
+     * UIs and views that take longer than this to be provisioned are logged
+     */
+    long thresholdMillis();
+}
@@ -0,0 +1,37 @@
+package com.vaadin.guice.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation to be placed on a {@link com.vaadin.guice.server.GuiceVaadinServlet}-subclass to
+ * release views after they have been left, keeping only the given number of the most recently
+ * left views, so navigating back to them does not create them anew. By default, every UI keeps all
+ * of it's views, like it did before views had their own scope. The same can be achieved with the
+ * 'retainedViews'-initParam.
+ * <pre>
+ * &#064;PackagesToScan("org.mycompany.ui")
+ * &#064;RetainedViews(3)
+ * public class MyServlet extends GuiceVaadinServlet {
+ * }
+ * </pre>
+ *
+ * @see GuiceView
+ */
+@Target({java.lang.annotation.ElementType.TYPE})
+@Retention(java.lang.annotation.RetentionPolicy.RUNTIME)
+@Documented
+public @interface RetainedViews {
+
+    /**
+     * keeps all views as long as their UI exists, the default
+     */
+    int ALL = Integer.MAX_VALUE;
+
+    /**
+     * how many of the most recently left views every UI keeps besides the current one, {@link
+     * #ALL} if not set. 0 releases every view as soon as it is left
+     */
+    int value();
+}
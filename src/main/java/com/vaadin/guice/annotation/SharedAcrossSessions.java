@@ -0,0 +1,25 @@
+package com.vaadin.guice.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation to be placed on {@link com.vaadin.server.RequestHandler}s and {@link
+ * com.vaadin.server.BootstrapListener}s that hold no state of their own. Instead of creating them
+ * for every new session, a single instance is created at startup and shared by all sessions.
+ * Request-handlers are then registered with the {@link com.vaadin.server.VaadinService}, so they
+ * take precedence over Vaadin's own handlers. Bootstrap-listeners that are bound as singletons are
+ * shared as well, singleton request-handlers are still registered with every session.
+ * <pre>
+ * &#064;SharedAcrossSessions
+ * public class HealthCheckHandler implements RequestHandler {
+ *     // ...
+ * }
+ * </pre>
+ */
+@Target({java.lang.annotation.ElementType.TYPE})
+@Retention(java.lang.annotation.RetentionPolicy.RUNTIME)
+@Documented
+public @interface SharedAcrossSessions {
+}
@@ -0,0 +1,28 @@
+package com.vaadin.guice.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation to be placed on a {@link com.vaadin.guice.server.GuiceVaadinServlet}-subclass to
+ * limit how many tasks of a single session the {@link com.vaadin.guice.server.ScopedExecutor}
+ * runs at a time, further tasks wait until one of them is finished. The same can be achieved
+ * with the 'tasksPerSession'-initParam.
+ * <pre>
+ * &#064;PackagesToScan("org.mycompany.ui")
+ * &#064;TasksPerSession(2)
+ * public class MyServlet extends GuiceVaadinServlet {
+ * }
+ * </pre>
+ */
+@Target({java.lang.annotation.ElementType.TYPE})
+@Retention(java.lang.annotation.RetentionPolicy.RUNTIME)
+@Documented
+public @interface TasksPerSession {
+
+    /**
+     * the number of tasks a session can run at a time, 4 if not set
+     */
+    int value();
+}
@@ -0,0 +1,27 @@
+package com.vaadin.guice.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation to be placed on a {@link com.vaadin.guice.server.GuiceVaadinServlet}-subclass to set
+ * how many times per second a {@link com.vaadin.guice.server.UIUpdateDispatcher} applies the
+ * updates queued since it's last batch. The same can be achieved with the 'uiUpdateRate'-initParam.
+ * <pre>
+ * &#064;PackagesToScan("org.mycompany.ui")
+ * &#064;UIUpdateRate(4)
+ * public class MyServlet extends GuiceVaadinServlet {
+ * }
+ * </pre>
+ */
+@Target({java.lang.annotation.ElementType.TYPE})
+@Retention(java.lang.annotation.RetentionPolicy.RUNTIME)
+@Documented
+public @interface UIUpdateRate {
+
+    /**
+     * batches per second, 10 if not set
+     */
+    int value();
+}
@@ -0,0 +1,45 @@
+package com.vaadin.guice.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation to be placed on a {@link com.vaadin.guice.server.GuiceVaadinServlet}-subclass to
+ * choose where instances in the {@link VaadinSessionScope} are stored. The same can be achieved
+ * with the 'vaadinSessionScopeStorage'-initParam, using the name of a {@link Storage}.
+ * <pre>
+ * &#064;PackagesToScan("org.mycompany.ui")
+ * &#064;VaadinSessionScopeStorage(VaadinSessionScopeStorage.Storage.SESSION_ATTRIBUTE)
+ * public class MyServlet extends GuiceVaadinServlet {
+ * }
+ * </pre>
+ */
+@Target({java.lang.annotation.ElementType.TYPE})
+@Retention(java.lang.annotation.RetentionPolicy.RUNTIME)
+@Documented
+public @interface VaadinSessionScopeStorage {
+
+    /**
+     * where session-scoped instances are to be stored
+     */
+    Storage value();
+
+    enum Storage {
+        /**
+         * a single map for all sessions of the servlet, entries are removed when the {@link
+         * com.vaadin.server.VaadinSession} is garbage-collected. This is the default.
+         */
+        GLOBAL_MAP,
+
+        /**
+         * the instances are stored in an attribute of the {@link com.vaadin.server.VaadinSession}
+         * itself, so lookups do not depend on the number of live sessions. Session-scoped instances
+         * are not serialized with the session and will be created anew after deserialization.
+         * Lookups require the session's lock to be held, like every access to session-attributes.
+         *
+         * @see com.vaadin.server.VaadinSession#setAttribute(String, Object)
+         */
+        SESSION_ATTRIBUTE
+    }
+}
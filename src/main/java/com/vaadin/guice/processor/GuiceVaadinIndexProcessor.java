@@ -0,0 +1,159 @@
+package com.vaadin.guice.processor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Annotation processor that writes an index of all classes that {@link
+ * com.vaadin.guice.server.GuiceVaadinServlet} would otherwise find by scanning the classpath, like
+ * {@link com.google.inject.Module}s and classes annotated with {@link
+ * com.vaadin.guice.annotation.GuiceUI}, {@link com.vaadin.guice.annotation.GuiceView} or {@link
+ * com.vaadin.guice.annotation.ForUI}. The index is written to {@value #INDEX_LOCATION}, one line
+ * per class consisting of the indexed type and the class's binary name. <p> The processor is
+ * picked up automatically by javac for every project that has guice-vaadin on it's compile
+ * classpath. GuiceVaadinServlet reads the classes of every jar or directory with an index from
+ * it, scanned packages that are also found in jars or directories without an index are scanned.
+ */
+@SupportedAnnotationTypes("*")
+public class GuiceVaadinIndexProcessor extends AbstractProcessor {
+
+    public static final String INDEX_LOCATION = "META-INF/guice-vaadin.index";
+
+    /**
+     * the types that are looked up by GuiceVaadinServlet
+     */
+    private static final String[] INDEXED_TYPES = {
+            "com.google.inject.Module",
+            "com.vaadin.ui.UI",
+            "com.vaadin.navigator.View",
+            "com.vaadin.navigator.ViewChangeListener",
+            "com.vaadin.server.BootstrapListener",
+            "com.vaadin.server.VaadinServiceInitListener",
+            "com.vaadin.server.RequestHandler"
+    };
+
+    private final Set<String> entries = new TreeSet<>();
+    private final Set<String> processedClasses = new TreeSet<>();
+    private boolean existingIndex;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            writeIndex();
+        } else {
+            roundEnv
+                    .getRootElements()
+                    .forEach(this::index);
+        }
+
+        //other processors may need to see the same annotations
+        return false;
+    }
+
+    private void index(Element element) {
+        if (!element.getKind().isClass() && !element.getKind().isInterface()) {
+            return;
+        }
+
+        final TypeElement typeElement = (TypeElement) element;
+
+        final Elements elements = processingEnv.getElementUtils();
+        final Types types = processingEnv.getTypeUtils();
+
+        final String binaryName = elements.getBinaryName(typeElement).toString();
+
+        processedClasses.add(binaryName);
+
+        if (typeElement.getKind() == ElementKind.CLASS && !typeElement.getModifiers().contains(Modifier.ABSTRACT)) {
+            for (String indexedType : INDEXED_TYPES) {
+                final TypeElement indexedTypeElement = elements.getTypeElement(indexedType);
+
+                //types that are not on the compile-classpath cannot have subtypes here
+                if (indexedTypeElement == null) {
+                    continue;
+                }
+
+                final TypeMirror erasure = types.erasure(indexedTypeElement.asType());
+
+                if (types.isAssignable(types.erasure(typeElement.asType()), erasure)) {
+                    entries.add(indexedType + " " + binaryName);
+                }
+            }
+        }
+
+        typeElement
+                .getEnclosedElements()
+                .forEach(this::index);
+    }
+
+    private void writeIndex() {
+        readExistingEntries();
+
+        //an existing index is overwritten even without entries, it would list removed classes otherwise
+        if (entries.isEmpty() && !existingIndex) {
+            return;
+        }
+
+        try {
+            FileObject fileObject = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", INDEX_LOCATION);
+
+            try (Writer writer = fileObject.openWriter()) {
+                for (String entry : entries) {
+                    writer.write(entry);
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "unable to write " + INDEX_LOCATION + ": " + e);
+        }
+    }
+
+    /*
+     * compilers may only pass the changed sources, so entries of classes that were not
+     * compiled this time are carried over from an existing index
+     */
+    private void readExistingEntries() {
+        try {
+            FileObject existing = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", INDEX_LOCATION);
+
+            try (BufferedReader reader = new BufferedReader(existing.openReader(true))) {
+                existingIndex = true;
+
+                String line;
+
+                while ((line = reader.readLine()) != null) {
+                    final String[] typeAndClass = line.trim().split(" ");
+
+                    if (typeAndClass.length == 2 && !processedClasses.contains(typeAndClass[1])) {
+                        entries.add(line.trim());
+                    }
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            //no existing index
+        }
+    }
+}
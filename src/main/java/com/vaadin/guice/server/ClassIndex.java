@@ -0,0 +1,305 @@
+package com.vaadin.guice.server;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.SetMultimap;
+
+import org.reflections.Reflections;
+import org.reflections.scanners.SubTypesScanner;
+import org.reflections.scanners.TypeAnnotationsScanner;
+import org.reflections.util.ClasspathHelper;
+import org.reflections.util.ConfigurationBuilder;
+import org.reflections.util.FilterBuilder;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.security.CodeSource;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.google.common.base.Suppliers.memoize;
+import static com.vaadin.guice.processor.GuiceVaadinIndexProcessor.INDEX_LOCATION;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.reflect.Modifier.isAbstract;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.stream;
+import static java.util.Comparator.comparingInt;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+
+/**
+ * the classes in the scanned packages, either read from the indices written by {@link
+ * com.vaadin.guice.processor.GuiceVaadinIndexProcessor} or found by scanning the classpath. Every
+ * index covers the classpath-root it is found in, classpath-roots without an index are scanned.
+ */
+abstract class ClassIndex {
+
+    private static final Logger LOGGER = Logger.getLogger(ClassIndex.class.getName());
+
+    /*
+     * the classpath-root of guice-vaadin itself
+     */
+    private static final String LIBRARY_LOCATION = location(ClassIndex.class);
+
+    abstract <U> Set<Class<? extends U>> nonAbstractSubtypes(Class<U> type);
+
+    /**
+     * packages that are also found in classpath-roots without an index, like classes of the
+     * application compiled without the annotation-processor, are scanned nevertheless
+     *
+     * @return the compiled index, or null if there is no index on the classpath
+     */
+    static ClassIndex load(ClassLoader classLoader, String[] packagesToScan) {
+        final SetMultimap<String, String> classNamesByType = HashMultimap.create();
+        final Set<String> indexedRoots = new HashSet<>();
+
+        final Enumeration<URL> resources;
+
+        try {
+            resources = classLoader.getResources(INDEX_LOCATION);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        if (!resources.hasMoreElements()) {
+            return null;
+        }
+
+        while (resources.hasMoreElements()) {
+            final URL url = resources.nextElement();
+
+            indexedRoots.add(classpathRoot(url, INDEX_LOCATION));
+
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(url.openStream(), UTF_8))) {
+                String line;
+
+                while ((line = reader.readLine()) != null) {
+                    final String[] typeAndClass = line.trim().split(" ");
+
+                    if (typeAndClass.length == 2) {
+                        classNamesByType.put(typeAndClass[0], typeAndClass[1]);
+                    }
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("unable to read " + url, e);
+            }
+        }
+
+        final ClassIndex compiledClassIndex = new CompiledClassIndex(classNamesByType, classLoader, packagesToScan);
+
+        final String[] unindexedPackages = packageRoots(packagesToScan)
+                .stream()
+                .filter(packageRoot -> !isIndexed(packageRoot, indexedRoots, classLoader))
+                .toArray(String[]::new);
+
+        if (unindexedPackages.length == 0) {
+            return compiledClassIndex;
+        }
+
+        LOGGER.log(
+                Level.INFO,
+                "{0} are also found in classpath-roots without a guice-vaadin index and are scanned",
+                Arrays.toString(unindexedPackages)
+        );
+
+        return new CombinedClassIndex(compiledClassIndex, scan(memoize(() -> scanClasspath(unindexedPackages))));
+    }
+
+    /*
+     * a package is indexed if every classpath-root holding it has an index of it's own
+     */
+    private static boolean isIndexed(String packageRoot, Set<String> indexedRoots, ClassLoader classLoader) {
+        final String path = packageRoot.replace('.', '/');
+
+        final Enumeration<URL> packageUrls;
+
+        try {
+            packageUrls = classLoader.getResources(path);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        while (packageUrls.hasMoreElements()) {
+            if (!indexedRoots.contains(classpathRoot(packageUrls.nextElement(), path))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static String classpathRoot(URL url, String resourceName) {
+        String externalForm = url.toExternalForm();
+
+        if (externalForm.endsWith("/")) {
+            externalForm = externalForm.substring(0, externalForm.length() - 1);
+        }
+
+        return externalForm.endsWith(resourceName)
+                ? externalForm.substring(0, externalForm.length() - resourceName.length())
+                : externalForm;
+    }
+
+    /*
+     * classes of guice-vaadin itself, like the ViewPlaceholder, are never application classes,
+     * even if packagesToScan include their package
+     */
+    private static boolean isLibraryClass(Class<?> clazz) {
+        return LIBRARY_LOCATION != null && LIBRARY_LOCATION.equals(location(clazz));
+    }
+
+    private static String location(Class<?> clazz) {
+        final CodeSource codeSource = clazz.getProtectionDomain().getCodeSource();
+
+        return codeSource != null && codeSource.getLocation() != null ? codeSource.getLocation().toExternalForm() : null;
+    }
+
+    static ClassIndex scan(Supplier<Reflections> reflections) {
+        return new ScanningClassIndex(reflections);
+    }
+
+    /**
+     * scans all packages in one pass. Packages that are sub-packages of other packages to scan
+     * are dropped, every classpath-root is scanned once and the roots are scanned in parallel.
+     */
+    static Reflections scanClasspath(String[] packagesToScan) {
+        final Set<String> packageRoots = packageRoots(packagesToScan);
+
+        final Set<URL> urls = new LinkedHashSet<>();
+
+        final FilterBuilder inputsFilter = new FilterBuilder();
+
+        for (String packageRoot : packageRoots) {
+            urls.addAll(ClasspathHelper.forPackage(packageRoot));
+            inputsFilter.includePackage(packageRoot);
+        }
+
+        final int parallelism = max(1, min(Runtime.getRuntime().availableProcessors(), urls.size()));
+
+        //the executor is shut down by Reflections after the scan
+        return new Reflections(
+                new ConfigurationBuilder()
+                        .addUrls(urls)
+                        .filterInputsBy(inputsFilter)
+                        .setScanners(new TypeAnnotationsScanner(), new SubTypesScanner())
+                        .setExecutorService(new ForkJoinPool(parallelism))
+        );
+    }
+
+    static Set<String> packageRoots(String[] packagesToScan) {
+        final List<String> packages = stream(packagesToScan)
+                .map(String::trim)
+                .filter(packageName -> !packageName.isEmpty())
+                .distinct()
+                .sorted(comparingInt(String::length))
+                .collect(toList());
+
+        final Set<String> packageRoots = new LinkedHashSet<>();
+
+        for (String packageName : packages) {
+            final boolean isSubPackage = packageRoots
+                    .stream()
+                    .anyMatch(root -> packageName.startsWith(root + "."));
+
+            if (!isSubPackage) {
+                packageRoots.add(packageName);
+            }
+        }
+
+        return packageRoots;
+    }
+
+    private static final class CompiledClassIndex extends ClassIndex {
+
+        private final SetMultimap<String, String> classNamesByType;
+        private final ClassLoader classLoader;
+        private final String[] packagePrefixes;
+
+        private CompiledClassIndex(SetMultimap<String, String> classNamesByType, ClassLoader classLoader, String[] packagesToScan) {
+            this.classNamesByType = classNamesByType;
+            this.classLoader = classLoader;
+            this.packagePrefixes = stream(packagesToScan)
+                    .map(String::trim)
+                    .map(packageName -> packageName + ".")
+                    .toArray(String[]::new);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        <U> Set<Class<? extends U>> nonAbstractSubtypes(Class<U> type) {
+            final Set<Class<? extends U>> subtypes = new HashSet<>();
+
+            for (String className : classNamesByType.get(type.getName())) {
+                if (stream(packagePrefixes).noneMatch(className::startsWith)) {
+                    continue;
+                }
+
+                final Class<?> clazz;
+
+                try {
+                    clazz = Class.forName(className, false, classLoader);
+                } catch (ClassNotFoundException e) {
+                    //stale entry, the class has been removed after the index was written
+                    Logger.getLogger(getClass().getName()).log(Level.WARNING, "indexed class {0} not found", className);
+                    continue;
+                }
+
+                if (type.isAssignableFrom(clazz) && !isAbstract(clazz.getModifiers()) && !isLibraryClass(clazz)) {
+                    subtypes.add((Class<? extends U>) clazz);
+                }
+            }
+
+            return subtypes;
+        }
+    }
+
+    private static final class CombinedClassIndex extends ClassIndex {
+
+        private final ClassIndex[] classIndices;
+
+        private CombinedClassIndex(ClassIndex... classIndices) {
+            this.classIndices = classIndices;
+        }
+
+        @Override
+        <U> Set<Class<? extends U>> nonAbstractSubtypes(Class<U> type) {
+            final Set<Class<? extends U>> subtypes = new HashSet<>();
+
+            for (ClassIndex classIndex : classIndices) {
+                subtypes.addAll(classIndex.nonAbstractSubtypes(type));
+            }
+
+            return subtypes;
+        }
+    }
+
+    private static final class ScanningClassIndex extends ClassIndex {
+
+        private final Supplier<Reflections> reflections;
+
+        private ScanningClassIndex(Supplier<Reflections> reflections) {
+            this.reflections = reflections;
+        }
+
+        @Override
+        <U> Set<Class<? extends U>> nonAbstractSubtypes(Class<U> type) {
+            return reflections
+                    .get()
+                    .getSubTypesOf(type)
+                    .stream()
+                    .filter(subtype -> !isAbstract(subtype.getModifiers()))
+                    .filter(subtype -> !isLibraryClass(subtype))
+                    .collect(toSet());
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.vaadin.guice.server;
+
+import com.google.inject.Binding;
+import com.google.inject.Inject;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.Scopes;
+import com.google.inject.spi.Dependency;
+import com.google.inject.spi.HasDependencies;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static java.util.concurrent.CompletableFuture.allOf;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+
+/**
+ * creates all singletons of an injector in parallel. A singleton is created as soon as the
+ * singletons it depends on, directly or via unscoped bindings, are created. Guice locks every
+ * singleton on it's own, so singletons that are needed by more than one others are still created
+ * only once.
+ * <p>
+ * In {@link com.google.inject.Stage#PRODUCTION}, {@link Creation} is requested for injection while the
+ * injector is created, so the singletons are created before guice's own sequential pass, which
+ * then finds them created already.
+ */
+final class EagerSingletons {
+
+    /**
+     * creates the singletons when it is injected, see {@link com.google.inject.Binder#requestInjection(Object)}
+     */
+    static final class Creation {
+
+        private final StartupReport startupReport;
+
+        Creation(StartupReport startupReport) {
+            this.startupReport = startupReport;
+        }
+
+        @Inject
+        void create(Injector injector) {
+            final long start = System.nanoTime();
+
+            EagerSingletons.create(injector);
+
+            startupReport.setDuration(StartupReport.Phase.SINGLETON_CREATION, System.nanoTime() - start);
+        }
+    }
+
+    private final Injector injector;
+    private final Executor executor;
+    private final Map<Key<?>, CompletableFuture<Void>> futures = new HashMap<>();
+    private final Set<Key<?>> visiting = new HashSet<>();
+
+    private EagerSingletons(Injector injector, Executor executor) {
+        this.injector = injector;
+        this.executor = executor;
+    }
+
+    static void create(Injector injector) {
+        /*
+         * not bound to the number of cores, singletons often block on io while being created. The
+         * number of threads is limited by the number of singletons that are ready for creation
+         */
+        final ExecutorService pool = Executors.newCachedThreadPool(runnable -> {
+            final Thread thread = new Thread(runnable, "guice-vaadin-singletons");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            final EagerSingletons eagerSingletons = new EagerSingletons(injector, pool);
+
+            final List<CompletableFuture<Void>> singletons = new ArrayList<>();
+
+            for (Binding<?> binding : injector.getAllBindings().values()) {
+                if (Scopes.isSingleton(binding)) {
+                    singletons.add(eagerSingletons.schedule(binding));
+                }
+            }
+
+            allOf(singletons.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            //ProvisionExceptions and the like are to be thrown as they are
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw e;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private CompletableFuture<Void> schedule(Binding<?> binding) {
+        final Key<?> key = binding.getKey();
+
+        final CompletableFuture<Void> existing = futures.get(key);
+
+        if (existing != null) {
+            return existing;
+        }
+
+        //circular dependencies are resolved by guice itself
+        if (!visiting.add(key)) {
+            return completedFuture(null);
+        }
+
+        final List<CompletableFuture<Void>> dependencies = new ArrayList<>();
+
+        if (binding instanceof HasDependencies) {
+            for (Dependency<?> dependency : ((HasDependencies) binding).getDependencies()) {
+                final Binding<?> dependencyBinding = getBindingIfRequiredEagerly(dependency.getKey());
+
+                if (dependencyBinding != null) {
+                    dependencies.add(schedule(dependencyBinding));
+                }
+            }
+        }
+
+        final CompletableFuture<Void> dependenciesCreated = allOf(dependencies.toArray(new CompletableFuture<?>[0]));
+
+        final CompletableFuture<Void> future = Scopes.isSingleton(binding)
+                ? dependenciesCreated.thenRunAsync(() -> binding.getProvider().get(), executor)
+                : dependenciesCreated;
+
+        visiting.remove(key);
+        futures.put(key, future);
+
+        return future;
+    }
+
+    /*
+     * providers are resolved lazily, so what they provide is not needed for the creation of the dependant
+     */
+    private Binding<?> getBindingIfRequiredEagerly(Key<?> key) {
+        final Class<?> rawType = key.getTypeLiteral().getRawType();
+
+        if (rawType == com.google.inject.Provider.class || rawType == javax.inject.Provider.class) {
+            return null;
+        }
+
+        return injector.getExistingBinding(key);
+    }
+}
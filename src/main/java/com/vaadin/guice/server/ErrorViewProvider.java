@@ -1,16 +1,16 @@
 package com.vaadin.guice.server;
 
+import com.google.inject.Provider;
+
 import com.vaadin.navigator.View;
 import com.vaadin.navigator.ViewProvider;
 
 class ErrorViewProvider implements ViewProvider{
 
-    private final GuiceVaadinServlet guiceVaadinServlet;
-    private final Class<? extends View> viewClass;
+    private final Provider<? extends View> viewProvider;
 
-    ErrorViewProvider(GuiceVaadinServlet guiceVaadinServlet, Class<? extends View> viewClass) {
-        this.guiceVaadinServlet = guiceVaadinServlet;
-        this.viewClass = viewClass;
+    ErrorViewProvider(Provider<? extends View> viewProvider) {
+        this.viewProvider = viewProvider;
     }
 
     @Override
@@ -20,6 +20,6 @@ class ErrorViewProvider implements ViewProvider{
 
     @Override
     public View getView(String viewName) {
-        return guiceVaadinServlet.getInjector().getInstance(viewClass);
+        return viewProvider.get();
     }
-}
+}
\ No newline at end of file
@@ -0,0 +1,191 @@
+package com.vaadin.guice.server;
+
+import com.google.inject.Key;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder events of UI-creation, navigation and scoped provisioning. The events are
+ * disabled by default and need to be enabled in the recording's settings, like
+ * 'com.vaadin.guice.UICreation#enabled=true'. Every begin-method returns null if the event is not
+ * recorded, so the matching commit-method does nothing.
+ * <p>
+ * jdk.jfr is missing in Java 8 runtimes before 8u262, so the event-classes are only loaded if it
+ * is available.
+ */
+final class FlightRecorderEvents {
+
+    private static final boolean AVAILABLE = isAvailable();
+
+    private FlightRecorderEvents() {
+    }
+
+    static Object beginUICreation() {
+        return AVAILABLE ? Events.beginUICreation() : null;
+    }
+
+    static void commitUICreation(Object event, Class<?> uiClass) {
+        if (event != null) {
+            Events.commitUICreation(event, uiClass);
+        }
+    }
+
+    static Object beginUISetup() {
+        return AVAILABLE ? Events.beginUISetup() : null;
+    }
+
+    static void commitUISetup(Object event, Class<?> uiClass) {
+        if (event != null) {
+            Events.commitUISetup(event, uiClass);
+        }
+    }
+
+    static Object beginViewCreation() {
+        return AVAILABLE ? Events.beginViewCreation() : null;
+    }
+
+    static void commitViewCreation(Object event, String viewName, Class<?> viewClass) {
+        if (event != null) {
+            Events.commitViewCreation(event, viewName, viewClass);
+        }
+    }
+
+    static Object beginScopedProvision() {
+        return AVAILABLE ? Events.beginScopedProvision() : null;
+    }
+
+    static void commitScopedProvision(Object event, String scope, Key<?> key) {
+        if (event != null) {
+            Events.commitScopedProvision(event, scope, key);
+        }
+    }
+
+    private static boolean isAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event", false, FlightRecorderEvents.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /*
+     * only referenced if jdk.jfr is available, the enclosing class must not mention any of it's
+     * types so it can be verified without jdk.jfr
+     */
+    private static final class Events {
+
+        private static Object beginUICreation() {
+            return begin(new UICreation());
+        }
+
+        private static Object beginUISetup() {
+            return begin(new UISetup());
+        }
+
+        private static Object beginViewCreation() {
+            return begin(new ViewCreation());
+        }
+
+        private static Object beginScopedProvision() {
+            return begin(new ScopedProvision());
+        }
+
+        private static Object begin(Event event) {
+            if (!event.isEnabled()) {
+                return null;
+            }
+
+            event.begin();
+
+            return event;
+        }
+
+        private static void commitUICreation(Object event, Class<?> uiClass) {
+            final UICreation uiCreation = (UICreation) event;
+
+            uiCreation.uiClass = uiClass;
+            uiCreation.commit();
+        }
+
+        private static void commitUISetup(Object event, Class<?> uiClass) {
+            final UISetup uiSetup = (UISetup) event;
+
+            uiSetup.uiClass = uiClass;
+            uiSetup.commit();
+        }
+
+        private static void commitViewCreation(Object event, String viewName, Class<?> viewClass) {
+            final ViewCreation viewCreation = (ViewCreation) event;
+
+            viewCreation.viewName = viewName;
+            viewCreation.viewClass = viewClass;
+            viewCreation.commit();
+        }
+
+        private static void commitScopedProvision(Object event, String scope, Key<?> key) {
+            final ScopedProvision scopedProvision = (ScopedProvision) event;
+
+            if (scopedProvision.shouldCommit()) {
+                scopedProvision.scope = scope;
+                scopedProvision.key = key.toString();
+                scopedProvision.commit();
+            }
+        }
+
+        @Name("com.vaadin.guice.UICreation")
+        @Label("UI Creation")
+        @Description("GuiceUIProvider#createInstance")
+        @Category({"Vaadin", "Guice"})
+        @Enabled(false)
+        @StackTrace(false)
+        private static final class UICreation extends Event {
+            @Label("UI Class")
+            private Class<?> uiClass;
+        }
+
+        @Name("com.vaadin.guice.UISetup")
+        @Label("UI Setup")
+        @Description("set up of navigator, content and error-handler of a provisioned UI")
+        @Category({"Vaadin", "Guice"})
+        @Enabled(false)
+        @StackTrace(false)
+        private static final class UISetup extends Event {
+            @Label("UI Class")
+            private Class<?> uiClass;
+        }
+
+        @Name("com.vaadin.guice.ViewCreation")
+        @Label("View Creation")
+        @Description("GuiceViewProvider#getView")
+        @Category({"Vaadin", "Guice"})
+        @Enabled(false)
+        @StackTrace(false)
+        private static final class ViewCreation extends Event {
+            @Label("View Name")
+            private String viewName;
+
+            @Label("View Class")
+            private Class<?> viewClass;
+        }
+
+        @Name("com.vaadin.guice.ScopedProvision")
+        @Label("Scoped Provision")
+        @Description("provisioning of an instance that was not yet in it's scope")
+        @Category({"Vaadin", "Guice"})
+        @Enabled(false)
+        private static final class ScopedProvision extends Event {
+            @Label("Scope")
+            private String scope;
+
+            @Label("Key")
+            private String key;
+        }
+    }
+}
@@ -1,12 +1,34 @@
 package com.vaadin.guice.server;
 
 import com.vaadin.guice.annotation.GuiceUI;
+import com.vaadin.guice.annotation.IndependentGuard;
 import com.vaadin.navigator.Navigator;
+import com.vaadin.navigator.View;
+import com.vaadin.navigator.ViewChangeListener;
+import com.vaadin.navigator.ViewChangeListener.ViewChangeEvent;
 import com.vaadin.navigator.ViewDisplay;
+import com.vaadin.server.Page;
+import com.vaadin.server.VaadinServlet;
+import com.vaadin.shared.Registration;
 import com.vaadin.ui.ComponentContainer;
 import com.vaadin.ui.SingleComponentContainer;
 import com.vaadin.ui.UI;
 
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Logger;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
 /**
  * GuiceNavigator is the default {@link Navigator} for GuiceVaadinServlet
  *
@@ -15,6 +37,26 @@ import com.vaadin.ui.UI;
  */
 public class GuiceNavigator extends Navigator {
 
+    private static final Logger LOGGER = Logger.getLogger(GuiceNavigator.class.getName());
+
+    /*
+     * UIs without push are polled while async views are built, so they are displayed without
+     * waiting for the next request
+     */
+    private static final int PLACEHOLDER_POLL_INTERVAL = 500;
+
+    private int pendingPlaceholders;
+    private boolean pollingForPlaceholders;
+
+    //ordered by timeout, so the guards can be waited for one after another
+    private final List<Guard> guards = new ArrayList<>();
+    private transient Executor guardExecutor;
+
+    //set until a lazily initialized navigator is first navigated, the init itself is not serializable
+    private boolean initPending;
+    private transient Runnable pendingInit;
+    private Registration initOnFragmentChange;
+
     void init(UI ui, ComponentContainer container) {
         init(ui, new ComponentContainerViewDisplay(container));
     }
@@ -26,4 +68,267 @@ public class GuiceNavigator extends Navigator {
     void init(UI ui, ViewDisplay display) {
         init(ui, new UriFragmentManager(ui.getPage()), display);
     }
+
+    /**
+     * defers the initialization until the first navigation or the first change of the
+     * uri-fragment, see {@link GuiceUI#lazyNavigator()}
+     */
+    @SuppressWarnings("deprecation")
+    void initOnFirstNavigation(UI ui, Runnable init) {
+        //the UI is known before init, so the uri-fragment can be checked
+        this.ui = ui;
+        this.initPending = true;
+        this.pendingInit = init;
+        this.initOnFragmentChange = ui.getPage().addUriFragmentChangedListener(new InitOnFragmentChange(this));
+    }
+
+    /*
+     * UI#doInit navigates to the current state after the UI's init, null tells that navigation
+     * apart from navigations of the application
+     */
+    @Override
+    public String getState() {
+        return initPending ? null : super.getState();
+    }
+
+    @Override
+    public void navigateTo(String navigationState) {
+        if (initPending) {
+            if (navigationState == null) {
+                //only UIs opened with a uri-fragment navigate right away
+                if (hasFragment()) {
+                    initAndNavigate();
+                }
+
+                return;
+            }
+
+            runPendingInit();
+        }
+
+        super.navigateTo(navigationState);
+    }
+
+    private boolean hasFragment() {
+        final String fragment = ui.getPage().getUriFragment();
+
+        //the UriFragmentManager only takes fragments starting with '!' as navigation-state
+        return fragment != null && fragment.startsWith("!") && fragment.length() > 1;
+    }
+
+    private void initAndNavigate() {
+        runPendingInit();
+        navigateTo(getState());
+    }
+
+    private void runPendingInit() {
+        final Runnable init = pendingInit != null ? pendingInit : initFromServlet();
+
+        initPending = false;
+        pendingInit = null;
+        initOnFragmentChange.remove();
+        initOnFragmentChange = null;
+
+        init.run();
+    }
+
+    /*
+     * deserialized navigators get their init from the servlet of the current request again
+     */
+    private Runnable initFromServlet() {
+        final VaadinServlet vaadinServlet = VaadinServlet.getCurrent();
+
+        checkState(
+                vaadinServlet instanceof GuiceVaadinServlet,
+                "the navigator of %s was deserialized before its first navigation, this needs to happen in a request of a GuiceVaadinServlet",
+                ui.getClass()
+        );
+
+        return ((GuiceVaadinServlet) vaadinServlet).getUiSetup().navigatorInit(this, ui);
+    }
+
+    void placeholderEntered() {
+        pendingPlaceholders++;
+
+        if (!getUI().getPushConfiguration().getPushMode().isEnabled() && getUI().getPollInterval() == -1) {
+            getUI().setPollInterval(PLACEHOLDER_POLL_INTERVAL);
+            pollingForPlaceholders = true;
+        }
+    }
+
+    /**
+     * displays the view built for the placeholder, unless the navigator has moved on in the
+     * meantime. The view-change listeners have approved the navigation to the placeholder already,
+     * so only afterViewChange is fired.
+     *
+     * @param view the built view or null if building it failed
+     */
+    void placeholderDone(View placeholder, View view, ViewChangeEvent placeholderEvent) {
+        if (view != null && getCurrentView() == placeholder) {
+            final ViewChangeEvent event = new ViewChangeEvent(
+                    this, placeholder, view, placeholderEvent.getViewName(), placeholderEvent.getParameters()
+            );
+
+            if (getDisplay() != null) {
+                getDisplay().showView(view);
+            }
+
+            switchView(event);
+            view.enter(event);
+            fireAfterViewChange(event);
+        }
+
+        if (--pendingPlaceholders == 0 && pollingForPlaceholders) {
+            getUI().setPollInterval(-1);
+            pollingForPlaceholders = false;
+        }
+    }
+
+    /**
+     * adds a listener whose beforeViewChange is evaluated concurrently with the other guards, see
+     * {@link IndependentGuard}
+     */
+    void addGuard(ViewChangeListener listener, long timeoutNanos, Executor executor) {
+        checkArgument(timeoutNanos > 0, "timeout of %s must be positive", listener);
+
+        guards.add(new Guard(listener, timeoutNanos));
+        guards.sort(Comparator.comparingLong(guard -> guard.timeoutNanos));
+        guardExecutor = executor;
+    }
+
+    /*
+     * the guards are started first, so they run while the ordered listeners are called. Their
+     * timeouts count from when the ordered listeners approved, so slow listeners do not use up the
+     * time of the guards
+     */
+    @Override
+    protected boolean fireBeforeViewChange(ViewChangeEvent event) {
+        if (guards.isEmpty()) {
+            return super.fireBeforeViewChange(event);
+        }
+
+        //deserialized navigators have no executor, they evaluate the guards on the calling thread
+        final Executor executor = guardExecutor != null ? guardExecutor : Runnable::run;
+
+        final List<CompletableFuture<Boolean>> approvals = new ArrayList<>(guards.size());
+        final CompletableFuture<Void> veto = new CompletableFuture<>();
+
+        for (Guard guard : guards) {
+            final CompletableFuture<Boolean> approval = CompletableFuture.supplyAsync(
+                    () -> guard.listener.beforeViewChange(event), executor
+            );
+
+            approval.whenComplete((approved, failure) -> {
+                if (failure != null || !approved) {
+                    veto.complete(null);
+                }
+            });
+
+            approvals.add(approval);
+        }
+
+        try {
+            return super.fireBeforeViewChange(event) && guardsApprove(approvals, veto, System.nanoTime());
+        } finally {
+            //guards that have not started yet are skipped
+            approvals.forEach(approval -> approval.cancel(false));
+        }
+    }
+
+    private boolean guardsApprove(List<CompletableFuture<Boolean>> approvals, CompletableFuture<Void> veto, long start) {
+        for (int i = 0; i < approvals.size(); i++) {
+            final Guard guard = guards.get(i);
+
+            try {
+                CompletableFuture
+                        .anyOf(approvals.get(i), veto)
+                        .get(start + guard.timeoutNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                LOGGER.warning(() -> guard.listener.getClass().getName() + " did not decide within it's timeout, navigation is vetoed");
+                return false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } catch (ExecutionException e) {
+                //handled below, along with failures of other guards
+            }
+
+            if (veto.isDone() || vetoes(approvals.get(i))) {
+                rethrowFailure(approvals);
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /*
+     * the veto is completed by a callback of the approval, which may not have run yet
+     */
+    private static boolean vetoes(CompletableFuture<Boolean> approval) {
+        return approval.isCompletedExceptionally() || Boolean.FALSE.equals(approval.getNow(null));
+    }
+
+    /*
+     * a failing guard fails the navigation, like a failing ordered listener would
+     */
+    private static void rethrowFailure(List<CompletableFuture<Boolean>> approvals) {
+        for (CompletableFuture<Boolean> approval : approvals) {
+            if (approval.isCompletedExceptionally() && !approval.isCancelled()) {
+                try {
+                    approval.join();
+                } catch (CompletionException e) {
+                    if (e.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException) e.getCause();
+                    }
+
+                    if (e.getCause() instanceof Error) {
+                        throw (Error) e.getCause();
+                    }
+
+                    throw e;
+                }
+            }
+        }
+    }
+
+    @Override
+    protected void fireAfterViewChange(ViewChangeEvent event) {
+        super.fireAfterViewChange(event);
+
+        for (Guard guard : guards) {
+            guard.listener.afterViewChange(event);
+        }
+    }
+
+    /*
+     * Vaadin 8 deprecates UriFragmentChangedListener without a replacement for fragments, a
+     * PopStateListener is not called when only the fragment changes. Navigator.UriFragmentManager
+     * listens the same way
+     */
+    @SuppressWarnings("deprecation")
+    private static final class InitOnFragmentChange implements Page.UriFragmentChangedListener {
+        private final GuiceNavigator navigator;
+
+        private InitOnFragmentChange(GuiceNavigator navigator) {
+            this.navigator = navigator;
+        }
+
+        @Override
+        public void uriFragmentChanged(Page.UriFragmentChangedEvent event) {
+            if (navigator.initPending) {
+                navigator.initAndNavigate();
+            }
+        }
+    }
+
+    private static final class Guard implements Serializable {
+        private final ViewChangeListener listener;
+        private final long timeoutNanos;
+
+        private Guard(ViewChangeListener listener, long timeoutNanos) {
+            this.listener = listener;
+            this.timeoutNanos = timeoutNanos;
+        }
+    }
 }
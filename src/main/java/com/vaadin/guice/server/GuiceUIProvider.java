@@ -1,5 +1,6 @@
 package com.vaadin.guice.server;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.inject.Injector;
 
 import com.vaadin.guice.annotation.GuiceUI;
@@ -9,7 +10,7 @@ import com.vaadin.server.UIProvider;
 import com.vaadin.ui.UI;
 
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -26,16 +27,23 @@ import static com.google.common.base.Preconditions.checkState;
  */
 class GuiceUIProvider extends UIProvider {
 
-    private final Map<String, Class<? extends UI>> pathToUIMap;
+    private final PathTrie<Class<? extends UI>> pathToUIs;
+
+    //the UI mapped to the root, or null
+    private final Class<? extends UI> rootUI;
     private final GuiceVaadinServlet guiceVaadinServlet;
 
+    //all UI-classes are known upfront, so the counters do not need to be created lazily
+    private final Map<Class<? extends UI>, LongAdder> creations;
+
     GuiceUIProvider(GuiceVaadinServlet guiceVaadinServlet) {
         this.guiceVaadinServlet = guiceVaadinServlet;
         Logger logger = Logger.getLogger(getClass().getName());
 
         logger.info("Checking the application context for Vaadin UIs");
 
-        pathToUIMap = new ConcurrentHashMap<>();
+        final PathTrie.Builder<Class<? extends UI>> pathToUIsBuilder = PathTrie.builder();
+        final ImmutableMap.Builder<Class<? extends UI>, LongAdder> creationsBuilder = ImmutableMap.builder();
 
         for (Class<? extends UI> uiClass : guiceVaadinServlet.getUiClasses()) {
 
@@ -53,9 +61,9 @@ class GuiceUIProvider extends UIProvider {
                 path = path.substring(0, path.length() - 1);
             }
 
-            path = path.toLowerCase();
+            path = PathTrie.lowerCase(path);
 
-            Class<? extends UI> existingUiForPath = pathToUIMap.get(path);
+            Class<? extends UI> existingUiForPath = pathToUIsBuilder.putIfAbsent(path, uiClass);
 
             checkState(
                     existingUiForPath == null,
@@ -67,53 +75,74 @@ class GuiceUIProvider extends UIProvider {
             logger.log(Level.INFO, "Mapping Vaadin UI [{0}] to path [{1}]",
                     new Object[]{uiClass.getCanonicalName(), path});
 
-            checkArgument(pathToUIMap.put(path, uiClass) == null, "multiple ui's mapped to the same path %s", path);
+            creationsBuilder.put(uiClass, new LongAdder());
         }
 
-        if (pathToUIMap.isEmpty()) {
+        pathToUIs = pathToUIsBuilder.build();
+        rootUI = pathToUIs.exactMatch("");
+        creations = creationsBuilder.build();
+
+        if (guiceVaadinServlet.getUiClasses().isEmpty()) {
             logger.log(Level.WARNING, "Found no Vaadin UIs in the application context");
         }
     }
 
+    /**
+     * the UI with the longest path that the request's path-info starts with, everything after a '!'
+     * is ignored. The UI mapped to the root only serves the root itself, so requests to unknown
+     * paths are left to Vaadin.
+     */
     @Override
-    public Class<? extends UI> getUIClass(
-            UIClassSelectionEvent uiClassSelectionEvent) {
-        String path = getPath(uiClassSelectionEvent);
-
-        return pathToUIMap.get(path);
-    }
+    public Class<? extends UI> getUIClass(UIClassSelectionEvent uiClassSelectionEvent) {
+        final String pathInfo = uiClassSelectionEvent.getRequest().getPathInfo();
 
-    private String getPath(UIClassSelectionEvent uiClassSelectionEvent) {
-        String path = uiClassSelectionEvent.getRequest().getPathInfo();
+        if (pathInfo == null) {
+            return rootUI;
+        }
 
-        final int indexOfBang = path.indexOf('!');
+        final int indexOfBang = pathInfo.indexOf('!');
+        final int end = indexOfBang > -1 ? indexOfBang : pathInfo.length();
 
-        if (indexOfBang > -1) {
-            path = path.substring(0, indexOfBang);
-        } else if (path.endsWith("/")) {
-            path = path.substring(0, path.length() - 1);
-        }
+        final Class<? extends UI> uiClass = pathToUIs.longestMatch(pathInfo, end);
 
-        return path.toLowerCase();
+        //only '' and '/' are the root
+        return uiClass == rootUI && end > 1 ? null : uiClass;
     }
 
     @Override
-    public synchronized UI createInstance(UICreateEvent event) {
+    public UI createInstance(UICreateEvent event) {
         final UIScope uiScoper = guiceVaadinServlet.getUiScoper();
         final Injector injector = guiceVaadinServlet.getInjector();
 
-        try {
-            final Class<? extends UI> uiClass = event.getUIClass();
+        final Class<? extends UI> uiClass = event.getUIClass();
 
+        final Object uiCreation = FlightRecorderEvents.beginUICreation();
+
+        try {
             uiScoper.startScopeInit(uiClass);
 
             UI ui = injector.getInstance(uiClass);
 
             uiScoper.flushInitialScopeSet(ui);
 
+            final LongAdder uiCreations = creations.get(uiClass);
+
+            if (uiCreations != null) {
+                uiCreations.increment();
+            }
+
             return ui;
         } finally {
             uiScoper.endScopeInit();
+
+            FlightRecorderEvents.commitUICreation(uiCreation, uiClass);
         }
     }
+
+    /**
+     * the number of created UIs by UI-class
+     */
+    Map<Class<? extends UI>, LongAdder> getCreations() {
+        return creations;
+    }
 }
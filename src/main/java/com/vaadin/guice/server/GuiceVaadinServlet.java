@@ -1,23 +1,47 @@
 package com.vaadin.guice.server;
 
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.MapMaker;
+import com.google.inject.Binding;
 import com.google.inject.Injector;
+import com.google.inject.Key;
 import com.google.inject.Module;
 import com.google.inject.Provider;
+import com.google.inject.Scopes;
+import com.google.inject.Stage;
 import com.google.inject.TypeLiteral;
+import com.google.inject.spi.Element;
+import com.google.inject.spi.Elements;
+import com.google.inject.spi.PrivateElements;
 
 import com.vaadin.guice.annotation.ForUI;
 import com.vaadin.guice.annotation.GuiceUI;
 import com.vaadin.guice.annotation.Import;
+import com.vaadin.guice.annotation.InjectorStage;
+import com.vaadin.guice.annotation.MaxCachedViews;
 import com.vaadin.guice.annotation.OverrideBindings;
 import com.vaadin.guice.annotation.PackagesToScan;
+import com.vaadin.guice.annotation.ProvisionProfiling;
+import com.vaadin.guice.annotation.RetainedViews;
+import com.vaadin.guice.annotation.SharedAcrossSessions;
+import com.vaadin.guice.annotation.TasksPerSession;
+import com.vaadin.guice.annotation.UIUpdateRate;
+import com.vaadin.guice.annotation.VaadinSessionScopeStorage;
 import com.vaadin.navigator.View;
 import com.vaadin.navigator.ViewChangeListener;
+import com.vaadin.server.BootstrapFragmentResponse;
 import com.vaadin.server.BootstrapListener;
+import com.vaadin.server.BootstrapPageResponse;
+import com.vaadin.server.BootstrapResponse;
 import com.vaadin.server.DeploymentConfiguration;
 import com.vaadin.server.RequestHandler;
 import com.vaadin.server.ServiceException;
+import com.vaadin.server.ServiceInitEvent;
+import com.vaadin.server.SessionDestroyEvent;
+import com.vaadin.server.SessionDestroyListener;
 import com.vaadin.server.SessionInitEvent;
 import com.vaadin.server.SessionInitListener;
+import com.vaadin.server.UIProvider;
 import com.vaadin.server.VaadinService;
 import com.vaadin.server.VaadinServiceInitListener;
 import com.vaadin.server.VaadinServlet;
@@ -29,27 +53,42 @@ import com.vaadin.ui.UI;
 import org.reflections.Reflections;
 
 import java.lang.annotation.Annotation;
+import java.lang.management.ManagementFactory;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import javax.management.JMException;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 import javax.servlet.ServletConfig;
 import javax.servlet.ServletException;
 
+import static com.google.common.base.MoreObjects.firstNonNull;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Strings.isNullOrEmpty;
+import static com.google.common.base.Suppliers.memoize;
 import static com.google.common.collect.Iterables.concat;
 import static com.google.inject.Guice.createInjector;
 import static com.google.inject.util.Modules.override;
-import static java.lang.reflect.Modifier.isAbstract;
 import static java.util.Arrays.stream;
 import static java.util.stream.Collectors.toMap;
 import static java.util.stream.Collectors.toSet;
@@ -61,55 +100,179 @@ import static java.util.stream.Collectors.toSet;
  * @author Bernd Hopp (bernd@vaadin.com)
  */
 @SuppressWarnings("unused")
-public class GuiceVaadinServlet extends VaadinServlet implements SessionInitListener {
+public class GuiceVaadinServlet extends VaadinServlet implements SessionInitListener, SessionDestroyListener {
 
     private static final Class<? super Provider<Injector>> injectorProviderType = new TypeLiteral<Provider<Injector>>() {
     }.getRawType();
     private GuiceViewProvider viewProvider;
+    private NavigationTable navigationTable;
+    private UISetup uiSetup;
     private GuiceUIProvider guiceUIProvider;
     private UIScope uiScoper;
     private Injector injector;
+    private Stage injectorStage;
     private VaadinSessionScope vaadinSessionScoper;
+    private ViewScope viewScoper;
+    private ProvisionProfiler provisionProfiler;
+    private ScopedExecutor scopedExecutor;
+    private UIUpdateDispatchers uiUpdateDispatchers;
     private Set<Class<? extends UI>> uiClasses;
     private Set<Class<? extends View>> viewClasses;
     private Map<Class<? extends UI>, Set<Class<? extends ViewChangeListener>>> viewChangeListenerClasses;
     private Set<Class<? extends BootstrapListener>> bootStrapListenerClasses;
     private Set<Class<? extends RequestHandler>> requestHandlerClasses;
     private Set<Class<? extends VaadinServiceInitListener>> vaadinServiceInitListenerClasses;
+    private List<Provider<? extends BootstrapListener>> sessionBootstrapListeners;
+    private List<Provider<? extends RequestHandler>> sessionRequestHandlers;
+    private BootstrapListener sharedBootstrapListener;
+    private List<BootstrapListener> sharedBootstrapListeners;
+    private List<RequestHandler> sharedRequestHandlers;
+    private final StartupReport startupReport = new StartupReport();
+    private final LongAdder liveSessions = new LongAdder();
+    //sessions deserialized after a restart have not been initialized by this servlet
+    private final Set<VaadinSession> initializedSessions = Collections.newSetFromMap(new MapMaker().weakKeys().makeMap());
+    private ObjectName objectName;
 
     @Override
     public void init(ServletConfig servletConfig) throws ServletException {
-        final String initParameter = servletConfig.getInitParameter("packagesToScan");
-
-        final String[] packagesToScan;
-
-        final boolean annotationPresent = getClass().isAnnotationPresent(PackagesToScan.class);
+        final String[] packagesToScan = getSetting(
+                servletConfig,
+                "packagesToScan",
+                PackagesToScan.class,
+                PackagesToScan::value,
+                initParameter -> initParameter.split(","),
+                null
+        );
 
-        if (!isNullOrEmpty(initParameter)) {
-            checkState(
-                !annotationPresent,
-                "%s has both @PackagesToScan-annotation and an 'packagesToScan'-initParam",
-                getClass()
-            );
-            packagesToScan = initParameter.split(",");
-        } else if (annotationPresent) {
-            packagesToScan = getClass().getAnnotation(PackagesToScan.class).value();
-        } else {
+        if (packagesToScan == null) {
             throw new IllegalStateException("no packagesToScan-initParameter found and no @PackagesToScan-annotation present, please configure the packages to be scanned");
         }
 
-        Reflections reflections = new Reflections((Object[]) packagesToScan);
+        final VaadinSessionScopeStorage.Storage vaadinSessionScopeStorage = getSetting(
+                servletConfig,
+                "vaadinSessionScopeStorage",
+                VaadinSessionScopeStorage.class,
+                VaadinSessionScopeStorage::value,
+                initParameter -> VaadinSessionScopeStorage.Storage.valueOf(initParameter.trim()),
+                VaadinSessionScopeStorage.Storage.GLOBAL_MAP
+        );
+
+        final int retainedViews = getSetting(
+                servletConfig,
+                "retainedViews",
+                RetainedViews.class,
+                RetainedViews::value,
+                initParameter -> Integer.parseInt(initParameter.trim()),
+                RetainedViews.ALL
+        );
+
+        final int maxCachedViews = getSetting(
+                servletConfig,
+                "maxCachedViews",
+                MaxCachedViews.class,
+                MaxCachedViews::value,
+                initParameter -> Integer.parseInt(initParameter.trim()),
+                10
+        );
+
+        this.injectorStage = getSetting(
+                servletConfig,
+                "injectorStage",
+                InjectorStage.class,
+                InjectorStage::value,
+                initParameter -> Stage.valueOf(initParameter.trim()),
+                Stage.DEVELOPMENT
+        );
+
+        final Long provisionProfilingThreshold = getSetting(
+                servletConfig,
+                "provisionProfilingThreshold",
+                ProvisionProfiling.class,
+                ProvisionProfiling::thresholdMillis,
+                initParameter -> Long.parseLong(initParameter.trim()),
+                null
+        );
+
+        final int tasksPerSession = getSetting(
+                servletConfig,
+                "tasksPerSession",
+                TasksPerSession.class,
+                TasksPerSession::value,
+                initParameter -> Integer.parseInt(initParameter.trim()),
+                4
+        );
+
+        final int uiUpdateRate = getSetting(
+                servletConfig,
+                "uiUpdateRate",
+                UIUpdateRate.class,
+                UIUpdateRate::value,
+                initParameter -> Integer.parseInt(initParameter.trim()),
+                10
+        );
+
+        checkArgument(uiUpdateRate > 0, "uiUpdateRate must be positive, is %s", uiUpdateRate);
+
+        checkArgument(injectorStage != Stage.TOOL, "Stage.TOOL is not supported by %s", getClass());
 
         final Set<Annotation> importAnnotations = stream(getClass().getAnnotations())
                 .filter(annotation -> annotation.annotationType().isAnnotationPresent(Import.class))
                 .collect(toSet());
 
-        //import packages
-        importAnnotations
+        final String[][] importedPackagesToScan = importAnnotations
                 .stream()
                 .map(annotation -> annotation.annotationType().getAnnotation(Import.class))
                 .filter(i -> i.packagesToScan().length != 0)
-                .forEach(i -> reflections.merge(new Reflections((Object[]) i.packagesToScan())));
+                .map(Import::packagesToScan)
+                .toArray(String[][]::new);
+
+        final String[] allPackagesToScan = Stream
+                .concat(stream(packagesToScan), stream(importedPackagesToScan).flatMap(Arrays::stream))
+                .toArray(String[]::new);
+
+        //the classpath is only scanned if there is no index or a module asks for Reflections
+        final Supplier<Reflections> reflections = memoize(() -> ClassIndex.scanClasspath(allPackagesToScan));
+
+        long phaseStart = System.nanoTime();
+
+        final ClassIndex compiledClassIndex = ClassIndex.load(getClassLoader(), allPackagesToScan);
+
+        final ClassIndex classIndex = compiledClassIndex != null
+                ? compiledClassIndex
+                : ClassIndex.scan(reflections);
+
+        final Set<Class<? extends Module>> moduleClasses = classIndex.nonAbstractSubtypes(Module.class);
+        final Set<Class<? extends ViewChangeListener>> allViewChangeListenerClasses = classIndex.nonAbstractSubtypes(ViewChangeListener.class);
+
+        this.viewClasses = classIndex.nonAbstractSubtypes(View.class);
+        this.uiClasses = classIndex.nonAbstractSubtypes(UI.class);
+        this.bootStrapListenerClasses = classIndex.nonAbstractSubtypes(BootstrapListener.class);
+        this.vaadinServiceInitListenerClasses = classIndex.nonAbstractSubtypes(VaadinServiceInitListener.class);
+        this.requestHandlerClasses = classIndex.nonAbstractSubtypes(RequestHandler.class);
+
+        startupReport.setDuration(StartupReport.Phase.CLASS_LOOKUP, System.nanoTime() - phaseStart);
+        startupReport.setCompiledIndexUsed(compiledClassIndex != null);
+        startupReport.setClasses(
+                ImmutableSet
+                        .<Class<?>>builder()
+                        .addAll(moduleClasses)
+                        .addAll(allViewChangeListenerClasses)
+                        .addAll(viewClasses)
+                        .addAll(uiClasses)
+                        .addAll(bootStrapListenerClasses)
+                        .addAll(vaadinServiceInitListenerClasses)
+                        .addAll(requestHandlerClasses)
+                        .build()
+                        .size()
+        );
+        startupReport.setUIs(uiClasses.size());
+        startupReport.setViews(viewClasses.size());
+        startupReport.setListeners(
+                allViewChangeListenerClasses.size() + bootStrapListenerClasses.size()
+                        + vaadinServiceInitListenerClasses.size() + requestHandlerClasses.size()
+        );
+
+        phaseStart = System.nanoTime();
 
         //import modules
         final Set<Module> modulesFromAnnotations = importAnnotations
@@ -122,12 +285,17 @@ public class GuiceVaadinServlet extends VaadinServlet implements SessionInitList
                 .map(Module::getClass)
                 .collect(toSet());
 
-        final Set<Module> modulesFromPath = nonAbstractSubtypes(reflections, Module.class)
+        final Set<Module> modulesFromPath = moduleClasses
                 .stream()
                 .filter(moduleClass -> !modulesFromAnnotationClasses.contains(moduleClass))
                 .map(moduleClass -> createModule(moduleClass, reflections, null))
                 .collect(toSet());
 
+        startupReport.setDuration(StartupReport.Phase.MODULE_CREATION, System.nanoTime() - phaseStart);
+        startupReport.setModules(modulesFromAnnotations.size() + modulesFromPath.size());
+
+        phaseStart = System.nanoTime();
+
         Iterable<Module> allModules = concat(
                 modulesFromAnnotations,
                 modulesFromPath
@@ -151,15 +319,27 @@ public class GuiceVaadinServlet extends VaadinServlet implements SessionInitList
         */
         Module combinedModules = override(nonOverrideModules).with(overrideModules);
 
-        this.viewClasses = nonAbstractSubtypes(reflections, View.class);
-        this.uiClasses = nonAbstractSubtypes(reflections, UI.class);
-        this.bootStrapListenerClasses = nonAbstractSubtypes(reflections, BootstrapListener.class);
-        this.vaadinServiceInitListenerClasses = nonAbstractSubtypes(reflections, VaadinServiceInitListener.class);
-        this.requestHandlerClasses = nonAbstractSubtypes(reflections, RequestHandler.class);
+        /*
+         * the modules are configured once here, so the keys they bind are known before the
+         * injector is created from the recorded elements
+        */
+        final List<Element> elements = Elements.getElements(injectorStage, combinedModules);
+
+        final Module recordedModules = Elements.getModule(elements);
+
+        startupReport.setDuration(StartupReport.Phase.MODULE_OVERRIDE, System.nanoTime() - phaseStart);
+
         this.uiScoper = new UIScope();
-        this.vaadinSessionScoper = new VaadinSessionScope();
+        this.vaadinSessionScoper = new VaadinSessionScope(vaadinSessionScopeStorage);
+        this.viewScoper = new ViewScope(uiScoper, retainedViews, maxCachedViews);
+        this.scopedExecutor = new ScopedExecutor(uiScoper, vaadinSessionScoper, tasksPerSession);
+        this.uiUpdateDispatchers = new UIUpdateDispatchers(uiScoper, TimeUnit.SECONDS.toNanos(1) / uiUpdateRate);
+        this.navigationTable = new NavigationTable(uiClasses, viewClasses);
         this.viewProvider = new GuiceViewProvider(viewClasses, this);
         this.guiceUIProvider = new GuiceUIProvider(this);
+        this.provisionProfiler = provisionProfilingThreshold != null
+                ? new ProvisionProfiler(provisionProfilingThreshold)
+                : null;
 
         this.viewChangeListenerClasses = uiClasses
                 .stream()
@@ -167,7 +347,7 @@ public class GuiceVaadinServlet extends VaadinServlet implements SessionInitList
 
         uiClasses.forEach(ui -> viewChangeListenerClasses.put(ui, new HashSet<>()));
 
-        for (Class<? extends ViewChangeListener> viewChangeListenerClass : nonAbstractSubtypes(reflections, ViewChangeListener.class)) {
+        for (Class<? extends ViewChangeListener> viewChangeListenerClass : allViewChangeListenerClasses) {
 
             final ForUI annotation = viewChangeListenerClass.getAnnotation(ForUI.class);
 
@@ -194,31 +374,179 @@ public class GuiceVaadinServlet extends VaadinServlet implements SessionInitList
         }
 
 
+        //validates the @GuiceUI-annotations
+        this.uiSetup = new UISetup(this);
+
+        final Set<Class<?>> scannedClasses = Stream
+                .of(uiClasses, viewClasses, allViewChangeListenerClasses, bootStrapListenerClasses, requestHandlerClasses, vaadinServiceInitListenerClasses)
+                .flatMap(Set::stream)
+                .collect(toSet());
+
         //sets up the basic vaadin stuff like UISetup
-        VaadinModule vaadinModule = new VaadinModule(this);
+        VaadinModule vaadinModule = new VaadinModule(this, scannedClasses, boundKeys(elements));
+
+        phaseStart = System.nanoTime();
+
+        //in production, the singletons are created while the injector is created, see EagerSingletons
+        this.injector = prepareInjector(vaadinModule, recordedModules);
+
+        viewProvider.resolveViewProviders(injector);
+        uiSetup.resolveProviders(injector);
+
+        startupReport.setDuration(
+                StartupReport.Phase.INJECTOR_CREATION,
+                System.nanoTime() - phaseStart - startupReport.getDuration(StartupReport.Phase.SINGLETON_CREATION).toNanos()
+        );
+        startupReport.setBindings(injector.getBindings().size());
+
+        resolveSessionHandlers();
 
-        this.injector = prepareInjector(vaadinModule, combinedModules);
+        phaseStart = System.nanoTime();
 
         super.init(servletConfig);
+
+        startupReport.setDuration(StartupReport.Phase.VAADIN_INITIALIZATION, System.nanoTime() - phaseStart);
+
+        Logger.getLogger(getClass().getName()).info(startupReport.toString());
+    }
+
+    /**
+     * the durations of the startup-phases and the number of classes, modules and bindings that were
+     * set up, complete after {@link #init(ServletConfig)} returned
+     */
+    public StartupReport getStartupReport() {
+        return startupReport;
+    }
+
+    /**
+     * the {@link Stage} the injector is created in, see {@link InjectorStage}
+     */
+    public Stage getInjectorStage() {
+        return injectorStage;
     }
-    
+
+    /**
+     * creates the injector. The modules passed in are guice-vaadin's own module and a module that
+     * replays the elements recorded from the application's modules, not the application's modules
+     * themselves, which are configured only once while being recorded. Subclasses that create the
+     * injector themselves should do so in {@link #getInjectorStage()}, in {@link Stage#PRODUCTION}
+     * the singletons are created in parallel while the injector is created.
+     */
     protected Injector prepareInjector(Module... modules) {
-		return createInjector(modules);
+		return createInjector(injectorStage, modules);
 	}
 
-    private <U> Set<Class<? extends U>> nonAbstractSubtypes(Reflections reflections, Class<U> type) {
-        return reflections
-                .getSubTypesOf(type)
-                .stream()
-                .filter(subtype -> !isAbstract(subtype.getModifiers()))
-                .collect(toSet());
+    /*
+     * a setting can either be configured by an annotation on the servlet-class or by an init-parameter, but not both
+     */
+    private <A extends Annotation, T> T getSetting(
+            ServletConfig servletConfig,
+            String initParameterName,
+            Class<A> annotationType,
+            Function<A, T> fromAnnotation,
+            Function<String, T> fromInitParameter,
+            T defaultValue
+    ) {
+        final String initParameter = servletConfig.getInitParameter(initParameterName);
+
+        final boolean annotationPresent = getClass().isAnnotationPresent(annotationType);
+
+        if (!isNullOrEmpty(initParameter)) {
+            checkState(
+                    !annotationPresent,
+                    "%s has both @%s-annotation and an '%s'-initParam",
+                    getClass(),
+                    annotationType.getSimpleName(),
+                    initParameterName
+            );
+            return fromInitParameter.apply(initParameter);
+        } else if (annotationPresent) {
+            return fromAnnotation.apply(getClass().getAnnotation(annotationType));
+        } else {
+            return defaultValue;
+        }
+    }
+
+    private ClassLoader getClassLoader() {
+        final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+
+        return contextClassLoader != null ? contextClassLoader : getClass().getClassLoader();
     }
 
     @Override
     protected void servletInitialized() throws ServletException {
-        VaadinService
-                .getCurrent()
-                .addSessionInitListener(this);
+        VaadinService service = VaadinService.getCurrent();
+
+        service.addSessionInitListener(this);
+        service.addSessionDestroyListener(this);
+
+        registerMBean();
+    }
+
+    @Override
+    public void destroy() {
+        unregisterMBean();
+
+        if (scopedExecutor != null) {
+            scopedExecutor.shutdown();
+        }
+
+        if (uiUpdateDispatchers != null) {
+            uiUpdateDispatchers.shutdown();
+        }
+
+        super.destroy();
+    }
+
+    /*
+     * monitoring is not essential, so a failed registration is only logged
+     */
+    private void registerMBean() {
+        final Hashtable<String, String> properties = new Hashtable<>();
+
+        properties.put("type", "GuiceVaadinServlet");
+        properties.put("name", ObjectName.quote(firstNonNull(getServletConfig().getServletName(), getClass().getName())));
+
+        final String contextPath = getServletContext().getContextPath();
+
+        if (!isNullOrEmpty(contextPath)) {
+            properties.put("context", ObjectName.quote(contextPath));
+        }
+
+        try {
+            //servlets with the same name in the same context are told apart by an instance-number
+            for (int instance = 2; ; instance++) {
+                final ObjectName objectName = new ObjectName("com.vaadin.guice", properties);
+
+                try {
+                    ManagementFactory.getPlatformMBeanServer().registerMBean(new ServletStatistics(this), objectName);
+                } catch (InstanceAlreadyExistsException e) {
+                    properties.put("instance", String.valueOf(instance));
+                    continue;
+                }
+
+                this.objectName = objectName;
+                break;
+            }
+        } catch (JMException e) {
+            Logger.getLogger(getClass().getName()).log(Level.WARNING, "unable to register the GuiceVaadinServletMXBean", e);
+        }
+    }
+
+    private void unregisterMBean() {
+        if (objectName == null) {
+            return;
+        }
+
+        final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+
+        try {
+            mBeanServer.unregisterMBean(objectName);
+        } catch (JMException e) {
+            Logger.getLogger(getClass().getName()).log(Level.WARNING, "unable to unregister " + objectName, e);
+        }
+
+        objectName = null;
     }
 
     @Override
@@ -230,29 +558,127 @@ public class GuiceVaadinServlet extends VaadinServlet implements SessionInitList
     public void sessionInit(SessionInitEvent event) throws ServiceException {
         VaadinSession session = event.getSession();
 
+        if (initializedSessions.add(session)) {
+            liveSessions.increment();
+        }
+
         // remove UIProvider instances to avoid mapping
         // extraneous UIs if e.g. a servlet is declared as a nested
-        // class in a UI class
-        session.getUIProviders().forEach(session::removeUIProvider);
+        // class in a UI class. Sessions only have UIProviders
+        // if the 'UI'-initParameter is set
+        final List<UIProvider> uiProviders = session.getUIProviders();
+
+        if (!uiProviders.isEmpty()) {
+            new ArrayList<>(uiProviders).forEach(session::removeUIProvider);
+        }
 
         //set the GuiceUIProvider
         session.addUIProvider(guiceUIProvider);
 
-        bootStrapListenerClasses
-                .stream()
-                .map(getInjector()::getInstance)
-                .forEach(session::addBootstrapListener);
+        if (sharedBootstrapListener != null) {
+            session.addBootstrapListener(sharedBootstrapListener);
+        }
 
-        requestHandlerClasses
-                .stream()
-                .map(getInjector()::getInstance)
-                .forEach(session::addRequestHandler);
+        for (Provider<? extends BootstrapListener> bootstrapListener : sessionBootstrapListeners) {
+            session.addBootstrapListener(bootstrapListener.get());
+        }
+
+        for (Provider<? extends RequestHandler> requestHandler : sessionRequestHandlers) {
+            session.addRequestHandler(requestHandler.get());
+        }
+    }
+
+    /*
+     * stateless listeners and handlers are created once, the others for every session
+     */
+    private void resolveSessionHandlers() {
+        sharedBootstrapListeners = new ArrayList<>();
+        sessionBootstrapListeners = new ArrayList<>();
+        sessionRequestHandlers = new ArrayList<>();
+        sharedRequestHandlers = new ArrayList<>();
+
+        for (Class<? extends BootstrapListener> bootstrapListenerClass : bootStrapListenerClasses) {
+            if (isSharedAcrossSessions(bootstrapListenerClass)) {
+                sharedBootstrapListeners.add(injector.getInstance(bootstrapListenerClass));
+            } else {
+                sessionBootstrapListeners.add(injector.getProvider(bootstrapListenerClass));
+            }
+        }
+
+        //singleton request-handlers stay with the sessions, since the service's handlers take precedence over Vaadin's own
+        for (Class<? extends RequestHandler> requestHandlerClass : requestHandlerClasses) {
+            if (requestHandlerClass.isAnnotationPresent(SharedAcrossSessions.class)) {
+                sharedRequestHandlers.add(injector.getInstance(requestHandlerClass));
+            } else {
+                sessionRequestHandlers.add(injector.getProvider(requestHandlerClass));
+            }
+        }
+
+        sharedBootstrapListener = sharedBootstrapListeners.isEmpty()
+                ? null
+                : new SharedBootstrapListener(sharedBootstrapListeners);
+    }
+
+    private boolean isSharedAcrossSessions(Class<?> clazz) {
+        return clazz.isAnnotationPresent(SharedAcrossSessions.class) || Scopes.isSingleton(injector.getBinding(clazz));
+    }
+
+    /**
+     * the scoped instances are released right away, rather than when the session is
+     * garbage-collected
+     */
+    @Override
+    public void sessionDestroy(SessionDestroyEvent event) {
+        final VaadinSession session = event.getSession();
+
+        if (initializedSessions.remove(session)) {
+            liveSessions.decrement();
+        }
+
+        uiScoper.release(session);
+        vaadinSessionScoper.release(session);
+    }
+
+    BootstrapListener getSharedBootstrapListener() {
+        return sharedBootstrapListener;
+    }
+
+    /**
+     * the number of sessions that were initialized and not yet destroyed
+     */
+    long getLiveSessions() {
+        return liveSessions.sum();
+    }
+
+    /**
+     * the number of UI- and session-scoped instances that were released because their UI was
+     * detached or their session was destroyed, and of views that were released after they have
+     * been left
+     */
+    public long getReclaimedScopeEntries() {
+        return uiScoper.getReclaimedEntries() + vaadinSessionScoper.getReclaimedEntries() + viewScoper.getReclaimedEntries();
+    }
+
+    /**
+     * the provisioning-times of the dependencies of UIs and views, null if neither a
+     * {@link ProvisionProfiling}-annotation nor a 'provisionProfilingThreshold'-initParam is present
+     */
+    public ProvisionProfiler getProvisionProfiler() {
+        return provisionProfiler;
     }
 
     GuiceViewProvider getViewProvider() {
         return viewProvider;
     }
 
+    NavigationTable getNavigationTable() {
+        return navigationTable;
+    }
+
+    UISetup getUiSetup() {
+        return uiSetup;
+    }
+
     GuiceUIProvider getGuiceUIProvider() {
         return guiceUIProvider;
     }
@@ -273,18 +699,87 @@ public class GuiceVaadinServlet extends VaadinServlet implements SessionInitList
         return viewChangeListenerClasses.get(uiClass);
     }
 
+    ViewScope getViewScoper() {
+        return viewScoper;
+    }
+
+    UIUpdateDispatchers getUiUpdateDispatchers() {
+        return uiUpdateDispatchers;
+    }
+
+    ScopedExecutor getScopedExecutor() {
+        return scopedExecutor;
+    }
+
     VaadinSessionScope getVaadinSessionScoper() {
         return vaadinSessionScoper;
     }
 
     Iterator<VaadinServiceInitListener> getServiceInitListeners() {
-        return vaadinServiceInitListenerClasses
-                .stream()
-                .map(key -> (VaadinServiceInitListener) getInjector().getInstance(key))
+        //vaadin 8 has no service-wide BootstrapListeners, only the shared request-handlers are registered here
+        final VaadinServiceInitListener sharedRequestHandlersListener = new SharedRequestHandlers(sharedRequestHandlers);
+
+        return Stream
+                .concat(
+                        vaadinServiceInitListenerClasses
+                                .stream()
+                                .map(key -> (VaadinServiceInitListener) getInjector().getInstance(key)),
+                        Stream.of(sharedRequestHandlersListener)
+                )
                 .iterator();
     }
 
-    private Module createModule(Class<? extends Module> moduleClass, Reflections reflections, Annotation annotation) {
+    /*
+     * listeners are serialized with the session, the shared listeners are not
+     */
+    private static final class SharedBootstrapListener implements BootstrapListener {
+        //null once the session has been deserialized
+        private transient List<BootstrapListener> bootstrapListeners;
+
+        private SharedBootstrapListener(List<BootstrapListener> bootstrapListeners) {
+            this.bootstrapListeners = bootstrapListeners;
+        }
+
+        @Override
+        public void modifyBootstrapFragment(BootstrapFragmentResponse response) {
+            bootstrapListeners(response).forEach(bootstrapListener -> bootstrapListener.modifyBootstrapFragment(response));
+        }
+
+        @Override
+        public void modifyBootstrapPage(BootstrapPageResponse response) {
+            bootstrapListeners(response).forEach(bootstrapListener -> bootstrapListener.modifyBootstrapPage(response));
+        }
+
+        /*
+         * deserialized listeners take the shared listeners of the servlet that serves the session now
+         */
+        private List<BootstrapListener> bootstrapListeners(BootstrapResponse response) {
+            if (bootstrapListeners == null) {
+                final VaadinService service = response.getSession().getService();
+
+                if (service instanceof VaadinServletService && ((VaadinServletService) service).getServlet() instanceof GuiceVaadinServlet) {
+                    bootstrapListeners = ((GuiceVaadinServlet) ((VaadinServletService) service).getServlet()).sharedBootstrapListeners;
+                }
+            }
+
+            return bootstrapListeners != null ? bootstrapListeners : Collections.emptyList();
+        }
+    }
+
+    private static final class SharedRequestHandlers implements VaadinServiceInitListener {
+        private final transient List<RequestHandler> requestHandlers;
+
+        private SharedRequestHandlers(List<RequestHandler> requestHandlers) {
+            this.requestHandlers = requestHandlers;
+        }
+
+        @Override
+        public void serviceInit(ServiceInitEvent event) {
+            requestHandlers.forEach(event::addRequestHandler);
+        }
+    }
+
+    private Module createModule(Class<? extends Module> moduleClass, Supplier<Reflections> reflections, Annotation annotation) {
 
         for (Constructor<?> constructor : moduleClass.getDeclaredConstructors()) {
 
@@ -298,7 +793,7 @@ public class GuiceVaadinServlet extends VaadinServlet implements SessionInitList
                 Class<?> parameterType = parameterTypes[i];
 
                 if (Reflections.class.equals(parameterType)) {
-                    initArgs[i] = reflections;
+                    initArgs[i] = reflections.get();
                 } else if (injectorProviderType.equals(parameterType)) {
                     initArgs[i] = (Provider<Injector>) this::getInjector;
                 } else if (annotation != null && annotation.annotationType().equals(parameterType)) {
@@ -325,29 +820,33 @@ public class GuiceVaadinServlet extends VaadinServlet implements SessionInitList
         throw new IllegalStateException("no suitable constructor found for %s" + moduleClass);
     }
 
-    Injector getInjector() {
-        return checkNotNull(injector, "injector is not set up yet");
-    }
+    /*
+     * keys bound inside of private modules are included even if they are not exposed, guice rejects
+     * a binding in the parent for a key that a private module binds
+     */
+    private static Set<Key<?>> boundKeys(List<Element> elements) {
+        final Set<Key<?>> boundKeys = new HashSet<>();
 
-    boolean isNavigable(Class<? extends UI> uiClass, Class<? extends View> viewClass) {
-        checkNotNull(viewClass);
+        addBoundKeys(elements, boundKeys);
 
-        if (!uiClasses.contains(uiClass)) {
-            //unknown ui, not navigable
-            return false;
-        }
-
-        ForUI forUI = viewClass.getAnnotation(ForUI.class);
+        return boundKeys;
+    }
 
-        if (forUI == null) {
-            //no @ForUI-annotation means that the view is not restricted to a particular set of UI's
-            return true;
+    private static void addBoundKeys(List<Element> elements, Set<Key<?>> boundKeys) {
+        for (Element element : elements) {
+            if (element instanceof Binding) {
+                boundKeys.add(((Binding<?>) element).getKey());
+            } else if (element instanceof PrivateElements) {
+                addBoundKeys(((PrivateElements) element).getElements(), boundKeys);
+            }
         }
+    }
 
-        final List<Class<? extends UI>> applicableUIs = Arrays.asList(forUI.value());
-
-        checkArgument(!applicableUIs.isEmpty(), "@ForUI#value() must not be empty at %s", viewClass);
+    Injector getInjector() {
+        return checkNotNull(injector, "injector is not set up yet");
+    }
 
-        return applicableUIs.contains(uiClass);
+    boolean isNavigable(Class<? extends UI> uiClass, Class<? extends View> viewClass) {
+        return navigationTable.isNavigable(uiClass, viewClass);
     }
 }
@@ -0,0 +1,57 @@
+package com.vaadin.guice.server;
+
+import java.util.Map;
+
+/**
+ * the scopes and UIs of a {@link GuiceVaadinServlet}, registered with the platform MBeanServer
+ * under 'com.vaadin.guice:type=GuiceVaadinServlet,name=&lt;servlet-name&gt;' while the servlet is
+ * in service. Lookups are counted with striped counters, everything else is computed when it is
+ * read.
+ */
+public interface GuiceVaadinServletMXBean {
+
+    int TOP_SCOPED_KEYS = 10;
+
+    /**
+     * the number of sessions that were initialized and not yet destroyed
+     */
+    long getLiveSessions();
+
+    /**
+     * the number of UIs that hold UI-scoped instances
+     */
+    int getLiveUIs();
+
+    /**
+     * the keys with the most UI- or session-scoped instances, at most {@link #TOP_SCOPED_KEYS}
+     */
+    Map<String, Integer> getTopScopedKeys();
+
+    /**
+     * lookups of UI-scoped instances that were already provisioned
+     */
+    long getUIScopeHits();
+
+    /**
+     * lookups of UI-scoped instances that provisioned a new instance
+     */
+    long getUIScopeMisses();
+
+    long getSessionScopeHits();
+
+    long getSessionScopeMisses();
+
+    long getViewScopeHits();
+
+    long getViewScopeMisses();
+
+    /**
+     * the number of created UIs by UI-class
+     */
+    Map<String, Long> getUICreations();
+
+    /**
+     * see {@link GuiceVaadinServlet#getReclaimedScopeEntries()}
+     */
+    long getReclaimedScopeEntries();
+}
@@ -1,11 +1,12 @@
 package com.vaadin.guice.server;
 
+import com.google.inject.Injector;
+
 import com.vaadin.guice.annotation.GuiceView;
 import com.vaadin.navigator.View;
 import com.vaadin.navigator.ViewProvider;
 import com.vaadin.ui.UI;
 
-import java.util.Map;
 import java.util.Set;
 
 import static com.google.common.base.Preconditions.checkArgument;
@@ -24,54 +25,72 @@ import static java.util.stream.Collectors.toMap;
  */
 class GuiceViewProvider implements ViewProvider {
 
-    private final Map<String, Class<? extends View>> viewNamesToViewClassesMap;
+    private final ViewRoutes routes;
     private final GuiceVaadinServlet guiceVaadinServlet;
 
     GuiceViewProvider(Set<Class<? extends View>> viewClasses, GuiceVaadinServlet guiceVaadinServlet) {
 
         viewClasses.forEach(c -> checkArgument(c.isAnnotationPresent(GuiceView.class), "GuiceView-annotation missing at %s", c));
 
-        viewNamesToViewClassesMap = viewClasses
-                .stream()
-                .collect(
-                        toMap(
-                                viewClass -> viewClass.getAnnotation(GuiceView.class).value().toLowerCase(),
-                                viewClass -> viewClass
+        routes = ViewRoutes.of(
+                viewClasses
+                        .stream()
+                        .collect(
+                                toMap(
+                                        viewClass -> viewClass.getAnnotation(GuiceView.class).value(),
+                                        viewClass -> viewClass
+                                )
                         )
-                );
+        );
 
         this.guiceVaadinServlet = guiceVaadinServlet;
     }
 
+    /**
+     * resolves the guice-providers of all views, needs to be called once the injector is created
+     */
+    void resolveViewProviders(Injector injector) {
+        routes.resolveProviders(injector);
+    }
+
     @Override
     public String getViewName(String viewNameAndParameters) {
         checkNotNull(viewNameAndParameters);
 
-        final int indexOfDelimiter = viewNameAndParameters.indexOf('/');
-
-        String viewName = indexOfDelimiter != -1
-                ? viewNameAndParameters.substring(0, indexOfDelimiter)
-                : viewNameAndParameters;
-
         //view-names are case-insensitive
-        viewName = viewName.toLowerCase();
-
-        final Class<? extends View> viewClass = viewNamesToViewClassesMap.get(viewName);
+        final ViewRoutes.Route route = routes.match(viewNameAndParameters);
 
         //if no view is registered under this name, null is to be returned
-        if (viewClass == null) {
+        if (route == null) {
             return null;
         }
 
         final UI currentUI = UI.getCurrent();
 
-        return guiceVaadinServlet.isNavigable(currentUI.getClass(), viewClass) ? viewName : null;
+        return guiceVaadinServlet.isNavigable(currentUI.getClass(), route.viewClass) ? route.viewName : null;
     }
 
     @Override
     public View getView(String viewName) {
-        Class<? extends View> viewClass = viewNamesToViewClassesMap.get(viewName);
+        final ViewRoutes.Route route = routes.exactMatch(viewName);
+
+        checkArgument(route != null, "no view registered under the name %s", viewName);
 
-        return guiceVaadinServlet.getInjector().getInstance(viewClass);
+        if (route.isAsync()) {
+            //the session stays locked only for building the placeholder
+            return new ViewPlaceholder(route.getPlaceholder(), () -> createView(route), guiceVaadinServlet.getScopedExecutor());
+        }
+
+        return createView(route);
+    }
+
+    private static View createView(ViewRoutes.Route route) {
+        final Object viewCreation = FlightRecorderEvents.beginViewCreation();
+
+        try {
+            return route.getView();
+        } finally {
+            FlightRecorderEvents.commitViewCreation(viewCreation, route.viewName, route.viewClass);
+        }
     }
 }
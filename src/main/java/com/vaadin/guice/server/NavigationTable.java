@@ -0,0 +1,137 @@
+package com.vaadin.guice.server;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import com.vaadin.guice.annotation.ForUI;
+import com.vaadin.guice.annotation.GuiceUI;
+import com.vaadin.guice.annotation.GuiceView;
+import com.vaadin.navigator.View;
+import com.vaadin.ui.UI;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * which view can be navigated to from which UI, computed once from the {@link ForUI}-annotations
+ * of the views. Every view gets an ordinal and every UI a {@link BitSet} of the ordinals of it's
+ * navigable views.
+ */
+final class NavigationTable {
+
+    private final Map<Class<? extends View>, Integer> viewOrdinals = new HashMap<>();
+    private final Map<Class<? extends UI>, Entry> entriesByUI = new HashMap<>();
+
+    NavigationTable(Set<Class<? extends UI>> uiClasses, Set<Class<? extends View>> viewClasses) {
+        final Class<?>[] viewsByOrdinal = new Class<?>[viewClasses.size()];
+
+        for (Class<? extends View> viewClass : viewClasses) {
+            final int ordinal = viewOrdinals.size();
+
+            viewOrdinals.put(viewClass, ordinal);
+            viewsByOrdinal[ordinal] = viewClass;
+        }
+
+        final Map<Class<? extends UI>, BitSet> navigableViewsByUI = new HashMap<>();
+
+        uiClasses.forEach(uiClass -> navigableViewsByUI.put(uiClass, new BitSet(viewsByOrdinal.length)));
+
+        viewOrdinals.forEach((viewClass, ordinal) -> {
+            final ForUI forUI = viewClass.getAnnotation(ForUI.class);
+
+            if (forUI == null) {
+                //no @ForUI-annotation means that the view is not restricted to a particular set of UI's
+                navigableViewsByUI.values().forEach(navigableViews -> navigableViews.set(ordinal));
+                return;
+            }
+
+            checkArgument(forUI.value().length > 0, "@ForUI#value() must not be empty at %s", viewClass);
+
+            for (Class<? extends UI> uiClass : forUI.value()) {
+                final BitSet navigableViews = navigableViewsByUI.get(uiClass);
+
+                checkArgument(
+                        navigableViews != null,
+                        "%s is listed as applicableUi in the @ForUI-annotation of %s, but is not annotated with @GuiceUI",
+                        uiClass, viewClass
+                );
+
+                navigableViews.set(ordinal);
+            }
+        });
+
+        navigableViewsByUI.forEach((uiClass, navigableViews) -> {
+            final GuiceUI guiceUI = uiClass.getAnnotation(GuiceUI.class);
+
+            checkArgument(guiceUI != null, "%s needs a GuiceUI-annotation", uiClass);
+
+            final ImmutableSet.Builder<Class<? extends View>> views = ImmutableSet.builder();
+            final ImmutableMap.Builder<String, Class<? extends View>> viewsByName = ImmutableMap.builder();
+
+            navigableViews.stream().forEach(ordinal -> {
+                @SuppressWarnings("unchecked")
+                final Class<? extends View> viewClass = (Class<? extends View>) viewsByOrdinal[ordinal];
+
+                views.add(viewClass);
+
+                if (!viewClass.equals(guiceUI.errorView())) {
+                    viewsByName.put(viewClass.getAnnotation(GuiceView.class).value(), viewClass);
+                }
+            });
+
+            entriesByUI.put(uiClass, new Entry(navigableViews, views.build(), viewsByName.build()));
+        });
+    }
+
+    boolean isNavigable(Class<? extends UI> uiClass, Class<? extends View> viewClass) {
+        checkNotNull(viewClass);
+
+        final Entry entry = entriesByUI.get(uiClass);
+
+        //unknown ui, not navigable
+        if (entry == null) {
+            return false;
+        }
+
+        final Integer ordinal = viewOrdinals.get(viewClass);
+
+        return ordinal != null && entry.navigableViews.get(ordinal);
+    }
+
+    /**
+     * @see com.vaadin.guice.annotation.NavigableViewClasses
+     */
+    Set<Class<? extends View>> getNavigableViews(Class<? extends UI> uiClass) {
+        final Entry entry = entriesByUI.get(uiClass);
+
+        return entry != null ? entry.views : ImmutableSet.of();
+    }
+
+    /**
+     * the navigable views by their view-name, without the UI's error-view
+     *
+     * @see com.vaadin.guice.annotation.NavigableViewClasses
+     */
+    Map<String, Class<? extends View>> getNavigableViewsByName(Class<? extends UI> uiClass) {
+        final Entry entry = entriesByUI.get(uiClass);
+
+        return entry != null ? entry.viewsByName : ImmutableMap.of();
+    }
+
+    private static final class Entry {
+        private final BitSet navigableViews;
+        private final Set<Class<? extends View>> views;
+        private final Map<String, Class<? extends View>> viewsByName;
+
+        private Entry(BitSet navigableViews, Set<Class<? extends View>> views, Map<String, Class<? extends View>> viewsByName) {
+            this.navigableViews = navigableViews;
+            this.views = views;
+            this.viewsByName = viewsByName;
+        }
+    }
+}
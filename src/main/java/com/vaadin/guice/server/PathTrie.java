@@ -0,0 +1,203 @@
+package com.vaadin.guice.server;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import static java.lang.Character.toLowerCase;
+
+/**
+ * immutable, case-insensitive trie of '/'-separated paths. Lookups walk the characters of the
+ * requested path directly, so no Strings are created while matching.
+ */
+final class PathTrie<V> {
+
+    private final Node<V> root;
+
+    private PathTrie(Node<V> root) {
+        this.root = root;
+    }
+
+    static <V> Builder<V> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * the value of the longest key that path[0, end) starts with. Keys need to be followed by
+     * either a '/' or end.
+     *
+     * @return the matching value or null
+     */
+    V longestMatch(String path, int end) {
+        Node<V> node = root;
+        V match = null;
+        int i = 0;
+
+        while (true) {
+            for (char c : node.label) {
+                if (i == end || lowerCase(path.charAt(i)) != c) {
+                    return match;
+                }
+
+                i++;
+            }
+
+            if (node.value != null && (i == end || path.charAt(i) == '/')) {
+                match = node.value;
+            }
+
+            if (i == end || (node = node.child(lowerCase(path.charAt(i)))) == null) {
+                return match;
+            }
+
+            i++;
+        }
+    }
+
+    /**
+     * @return the value of exactly this key, or null
+     */
+    V exactMatch(String key) {
+        Node<V> node = root;
+        int i = 0;
+
+        while (true) {
+            for (char c : node.label) {
+                if (i == key.length() || lowerCase(key.charAt(i)) != c) {
+                    return null;
+                }
+
+                i++;
+            }
+
+            if (i == key.length()) {
+                return node.value;
+            }
+
+            if ((node = node.child(lowerCase(key.charAt(i)))) == null) {
+                return null;
+            }
+
+            i++;
+        }
+    }
+
+    void forEachValue(Consumer<? super V> consumer) {
+        root.forEachValue(consumer);
+    }
+
+    static String lowerCase(String key) {
+        final char[] chars = key.toCharArray();
+
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = lowerCase(chars[i]);
+        }
+
+        return new String(chars);
+    }
+
+    private static char lowerCase(char c) {
+        if (c < 128) {
+            return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        }
+
+        return toLowerCase(c);
+    }
+
+    static final class Builder<V> {
+        private final BuilderNode<V> root = new BuilderNode<>();
+
+        private Builder() {
+        }
+
+        /**
+         * @return the value that was already registered under the key, in which case it is kept
+         */
+        V putIfAbsent(String key, V value) {
+            BuilderNode<V> node = root;
+
+            for (int i = 0; i < key.length(); i++) {
+                node = node.children.computeIfAbsent(lowerCase(key.charAt(i)), c -> new BuilderNode<>());
+            }
+
+            if (node.value != null) {
+                return node.value;
+            }
+
+            node.value = value;
+
+            return null;
+        }
+
+        PathTrie<V> build() {
+            return new PathTrie<>(root.build());
+        }
+    }
+
+    /*
+     * chains of nodes without values and with a single child are merged into one node, the label
+     * holds the chars of the merged nodes
+     */
+    private static final class Node<V> {
+        private final char[] label;
+        private final char[] chars;
+        private final Node<V>[] children;
+        private final V value;
+
+        private Node(char[] label, char[] chars, Node<V>[] children, V value) {
+            this.label = label;
+            this.chars = chars;
+            this.children = children;
+            this.value = value;
+        }
+
+        private Node<V> child(char c) {
+            final int index = Arrays.binarySearch(chars, c);
+
+            return index >= 0 ? children[index] : null;
+        }
+
+        private void forEachValue(Consumer<? super V> consumer) {
+            if (value != null) {
+                consumer.accept(value);
+            }
+
+            for (Node<V> child : children) {
+                child.forEachValue(consumer);
+            }
+        }
+    }
+
+    private static final class BuilderNode<V> {
+        private final TreeMap<Character, BuilderNode<V>> children = new TreeMap<>();
+        private V value;
+
+        @SuppressWarnings("unchecked")
+        private Node<V> build() {
+            final StringBuilder label = new StringBuilder();
+
+            BuilderNode<V> node = this;
+
+            while (node.value == null && node.children.size() == 1) {
+                final Map.Entry<Character, BuilderNode<V>> onlyChild = node.children.firstEntry();
+
+                label.append(onlyChild.getKey().charValue());
+                node = onlyChild.getValue();
+            }
+
+            final char[] chars = new char[node.children.size()];
+            final Node<V>[] nodes = new Node[node.children.size()];
+
+            int i = 0;
+
+            for (Map.Entry<Character, BuilderNode<V>> entry : node.children.entrySet()) {
+                chars[i] = entry.getKey();
+                nodes[i] = entry.getValue().build();
+                i++;
+            }
+
+            return new Node<>(label.toString().toCharArray(), chars, nodes, node.value);
+        }
+    }
+}
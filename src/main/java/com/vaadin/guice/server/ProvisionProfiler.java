@@ -0,0 +1,201 @@
+package com.vaadin.guice.server;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Key;
+import com.google.inject.spi.ProvisionListener;
+
+import com.vaadin.navigator.View;
+import com.vaadin.ui.UI;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * measures the provisioning of every dependency while UIs and views are created, see {@link
+ * com.vaadin.guice.annotation.ProvisionProfiling}. Every thread records the provisions of the UI or
+ * view it currently creates as a tree, the durations include those of the dependencies.
+ *
+ * @see GuiceVaadinServlet#getProvisionProfiler()
+ */
+public final class ProvisionProfiler implements ProvisionListener {
+
+    private static final Logger LOGGER = Logger.getLogger(ProvisionProfiler.class.getName());
+
+    private final long thresholdNanos;
+
+    private final ConcurrentMap<Key<?>, Totals> totals = new ConcurrentHashMap<>();
+
+    private final ThreadLocal<Provision> current = new ThreadLocal<>();
+
+    ProvisionProfiler(long thresholdMillis) {
+        checkArgument(thresholdMillis >= 0, "thresholdMillis must not be negative, is %s", thresholdMillis);
+
+        this.thresholdNanos = MILLISECONDS.toNanos(thresholdMillis);
+    }
+
+    @Override
+    public <T> void onProvision(ProvisionInvocation<T> provisionInvocation) {
+        final Key<?> key = provisionInvocation.getBinding().getKey();
+
+        final Provision parent = current.get();
+
+        //provisions outside of UI- and view-creation are not recorded
+        if (parent == null && !isUIOrView(key)) {
+            provisionInvocation.provision();
+            return;
+        }
+
+        final Provision provision = new Provision(key);
+
+        if (parent != null) {
+            parent.children.add(provision);
+        }
+
+        current.set(provision);
+
+        final long start = System.nanoTime();
+
+        try {
+            provisionInvocation.provision();
+        } finally {
+            provision.nanos = System.nanoTime() - start;
+
+            if (parent != null) {
+                current.set(parent);
+            } else {
+                current.remove();
+            }
+
+            record(provision);
+
+            if (parent == null && provision.nanos > thresholdNanos) {
+                LOGGER.log(Level.WARNING, "provisioning {0} took {1} ms, slowest dependencies: {2}", new Object[]{
+                        describe(key), NANOSECONDS.toMillis(provision.nanos), slowestChain(provision)
+                });
+            }
+        }
+    }
+
+    /**
+     * the provisioning-times by key of everything that was provisioned while UIs and views were
+     * created
+     */
+    public Map<Key<?>, Totals> getTotals() {
+        return ImmutableMap.copyOf(totals);
+    }
+
+    private void record(Provision provision) {
+        Totals keyTotals = totals.get(provision.key);
+
+        if (keyTotals == null) {
+            final Totals newTotals = new Totals();
+
+            keyTotals = totals.putIfAbsent(provision.key, newTotals);
+
+            if (keyTotals == null) {
+                keyTotals = newTotals;
+            }
+        }
+
+        long childNanos = 0;
+
+        for (Provision child : provision.children) {
+            childNanos += child.nanos;
+        }
+
+        keyTotals.count.increment();
+        keyTotals.nanos.add(provision.nanos);
+        keyTotals.selfNanos.add(provision.nanos - childNanos);
+    }
+
+    private static boolean isUIOrView(Key<?> key) {
+        final Class<?> rawType = key.getTypeLiteral().getRawType();
+
+        return UI.class.isAssignableFrom(rawType) || View.class.isAssignableFrom(rawType);
+    }
+
+    private static String slowestChain(Provision root) {
+        final StringBuilder chain = new StringBuilder();
+
+        Provision provision = root;
+
+        while (!provision.children.isEmpty()) {
+            Provision slowest = provision.children.get(0);
+
+            for (Provision child : provision.children) {
+                if (child.nanos > slowest.nanos) {
+                    slowest = child;
+                }
+            }
+
+            if (chain.length() > 0) {
+                chain.append(" -> ");
+            }
+
+            chain
+                    .append(describe(slowest.key))
+                    .append(' ')
+                    .append(NANOSECONDS.toMillis(slowest.nanos))
+                    .append(" ms");
+
+            provision = slowest;
+        }
+
+        return chain.length() > 0 ? chain.toString() : "none";
+    }
+
+    private static String describe(Key<?> key) {
+        return key.getAnnotationType() == null ? key.getTypeLiteral().toString() : key.toString();
+    }
+
+    /**
+     * the provisions of a single key
+     */
+    public static final class Totals {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder selfNanos = new LongAdder();
+
+        private Totals() {
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        /**
+         * the time spent provisioning the key, including it's dependencies
+         */
+        public Duration getTotal() {
+            return Duration.ofNanos(nanos.sum());
+        }
+
+        /**
+         * the time spent provisioning the key, without it's dependencies
+         */
+        public Duration getSelf() {
+            return Duration.ofNanos(selfNanos.sum());
+        }
+    }
+
+    private static final class Provision {
+        private final Key<?> key;
+        private final List<Provision> children = new ArrayList<>(2);
+        private long nanos;
+
+        private Provision(Key<?> key) {
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.vaadin.guice.server;
+
+import com.google.inject.Key;
+import com.google.inject.Provider;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * holds the scoped instances of a single scope-context, like a {@link com.vaadin.ui.UI} or a
+ * {@link com.vaadin.server.VaadinSession}. Lookups of already provisioned instances do not lock.
+ */
+final class ScopeMap {
+
+    private final ConcurrentMap<Key<?>, Object> instances = new ConcurrentHashMap<>();
+
+    //the instances that are being provisioned, entries are removed once they are done
+    private final ConcurrentMap<Key<?>, Provision> provisions = new ConcurrentHashMap<>();
+
+    private final Statistics statistics;
+
+    ScopeMap(Statistics statistics) {
+        this.statistics = statistics;
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> T get(Key<T> key, Provider<T> provider) {
+        Object instance = instances.get(key);
+
+        if (instance != null) {
+            statistics.hit();
+            return (T) instance;
+        }
+
+        /*
+         * computeIfAbsent cannot be used here, since provisioning an instance will recursively
+         * look up other instances of the same scope. Concurrent lookups of the same key wait for
+         * the one provisioning it instead, so there is only ever one instance per key.
+         */
+        final Provision provision = new Provision();
+        final Provision runningProvision = provisions.putIfAbsent(key, provision);
+
+        if (runningProvision != null) {
+            //a circular dependency, guice resolves it by itself
+            if (runningProvision.thread == Thread.currentThread()) {
+                return provide(key, provider);
+            }
+
+            instance = runningProvision.join();
+
+            //the provision failed or returned null, neither of which is kept
+            return instance != null ? (T) instance : get(key, provider);
+        }
+
+        try {
+            //provisioned by another thread between the lookup and putIfAbsent
+            instance = instances.get(key);
+
+            if (instance != null) {
+                statistics.hit();
+            } else {
+                instance = provide(key, provider);
+
+                if (instance != null) {
+                    instances.put(key, instance);
+                }
+            }
+        } finally {
+            provisions.remove(key, provision);
+            provision.complete(instance);
+        }
+
+        return (T) instance;
+    }
+
+    private <T> T provide(Key<T> key, Provider<T> provider) {
+        statistics.miss();
+
+        final Object scopedProvision = FlightRecorderEvents.beginScopedProvision();
+
+        try {
+            return provider.get();
+        } finally {
+            FlightRecorderEvents.commitScopedProvision(scopedProvision, statistics.getScope(), key);
+        }
+    }
+
+    /**
+     * removes all instances
+     *
+     * @return the number of removed instances
+     */
+    int clear() {
+        int removed = 0;
+
+        for (Key<?> key : instances.keySet()) {
+            if (instances.remove(key) != null) {
+                removed++;
+            }
+        }
+
+        return removed;
+    }
+
+    void forEachKey(Consumer<? super Key<?>> consumer) {
+        instances.keySet().forEach(consumer);
+    }
+
+    /*
+     * completed with the provisioned instance, or with null if the provision failed
+     */
+    private static final class Provision extends CompletableFuture<Object> {
+        private final Thread thread = Thread.currentThread();
+    }
+
+    /**
+     * the lookups of all ScopeMaps of a scope, the counters are striped so they can be shared
+     * by concurrent requests
+     */
+    static final class Statistics {
+        private final String scope;
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+
+        /**
+         * @param scope the name of the scope in flight-recordings
+         */
+        Statistics(String scope) {
+            this.scope = scope;
+        }
+
+        void hit() {
+            hits.increment();
+        }
+
+        void miss() {
+            misses.increment();
+        }
+
+        String getScope() {
+            return scope;
+        }
+
+        /**
+         * lookups of instances that were already provisioned
+         */
+        long getHits() {
+            return hits.sum();
+        }
+
+        /**
+         * lookups that provisioned a new instance
+         */
+        long getMisses() {
+            return misses.sum();
+        }
+    }
+}
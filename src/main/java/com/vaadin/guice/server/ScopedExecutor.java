@@ -0,0 +1,294 @@
+package com.vaadin.guice.server;
+
+import com.google.common.collect.MapMaker;
+
+import com.vaadin.server.VaadinSession;
+import com.vaadin.ui.UI;
+import com.vaadin.util.CurrentInstance;
+
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * runs tasks in the background with the UI- and session-scope of the thread that submitted them,
+ * so UI- and session-scoped instances can be looked up and UI.getCurrent() and
+ * VaadinSession.getCurrent() return the submitter's UI and session. The session's lock is not held
+ * by the tasks, changes to components need to be made with {@link UI#access(Runnable)}.
+ * <pre>
+ * &#064;Inject
+ * ScopedExecutor scopedExecutor;
+ *
+ * CompletableFuture.supplyAsync(reportLoader::load, scopedExecutor).thenAccept(report -&gt; ui.access(() -&gt; show(report)));
+ * </pre>
+ * Tasks run on virtual threads if the JDK supports them, otherwise on a pool of twice as many
+ * threads as there are processors. Every session runs at most {@link
+ * com.vaadin.guice.annotation.TasksPerSession} tasks at a time, further tasks wait for them.
+ */
+public final class ScopedExecutor implements Executor {
+
+    /*
+     * tasks that are waiting beyond this are rejected, so a single session cannot fill the memory
+     */
+    static final int MAX_PENDING_TASKS_PER_SESSION = 1_000;
+
+    private static final Logger LOGGER = Logger.getLogger(ScopedExecutor.class.getName());
+
+    private final UIScope uiScope;
+    private final VaadinSessionScope vaadinSessionScope;
+    private final int tasksPerSession;
+    private final ExecutorService executorService;
+    private final ExecutorService guardExecutorService;
+    private final boolean virtualThreads;
+    private final Executor forGuards = this::executeGuard;
+
+    /*
+     * weak keys, so the queues are dropped along with their sessions
+     */
+    private final ConcurrentMap<VaadinSession, SessionQueue> queuesBySession = new MapMaker().weakKeys().makeMap();
+
+    ScopedExecutor(UIScope uiScope, VaadinSessionScope vaadinSessionScope, int tasksPerSession) {
+        checkArgument(tasksPerSession > 0, "tasksPerSession must be positive, is %s", tasksPerSession);
+
+        this.uiScope = uiScope;
+        this.vaadinSessionScope = vaadinSessionScope;
+        this.tasksPerSession = tasksPerSession;
+
+        final ExecutorService virtualThreadExecutor = newVirtualThreadExecutor();
+
+        this.virtualThreads = virtualThreadExecutor != null;
+        this.executorService = virtualThreadExecutor != null ? virtualThreadExecutor : newPlatformThreadExecutor();
+        this.guardExecutorService = virtualThreadExecutor != null ? virtualThreadExecutor : newGuardExecutor();
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        checkNotNull(task);
+
+        final VaadinSession vaadinSession = VaadinSession.getCurrent();
+
+        final Runnable scopedTask = newScopedTask(task, vaadinSession);
+
+        if (vaadinSession == null) {
+            executorService.execute(scopedTask);
+            return;
+        }
+
+        queuesBySession.computeIfAbsent(vaadinSession, session -> new SessionQueue()).submit(scopedTask);
+    }
+
+    /**
+     * an executor for {@link com.vaadin.guice.annotation.IndependentGuard}s, that runs tasks with
+     * the submitter's scope like this one. The guards neither wait for the other tasks of the
+     * session nor share the pool with the background-tasks, so they cannot time out behind them.
+     * When all of it's threads are busy, a guard runs on the submitting thread.
+     */
+    Executor forGuards() {
+        return forGuards;
+    }
+
+    private void executeGuard(Runnable task) {
+        checkNotNull(task);
+
+        guardExecutorService.execute(newScopedTask(task, VaadinSession.getCurrent()));
+    }
+
+    private Runnable newScopedTask(Runnable task, VaadinSession vaadinSession) {
+        return new ScopedTask(
+                task, vaadinSession, UI.getCurrent(), uiScope.captureScopeMap(), vaadinSessionScope.captureScopeMap()
+        );
+    }
+
+    /**
+     * true if tasks run on virtual threads, false if they run on a pool of platform threads
+     */
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    void shutdown() {
+        executorService.shutdown();
+        guardExecutorService.shutdown();
+    }
+
+    /*
+     * Executors.newVirtualThreadPerTaskExecutor() is only available since Java 21
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            final Method factory = java.util.concurrent.Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private static ExecutorService newPlatformThreadExecutor() {
+        final int threads = 2 * Runtime.getRuntime().availableProcessors();
+
+        final AtomicInteger threadNumber = new AtomicInteger();
+
+        final ThreadFactory threadFactory = runnable -> {
+            final Thread thread = new Thread(runnable, "guice-vaadin-scoped-executor-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        final ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(
+                threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory
+        );
+
+        threadPoolExecutor.allowCoreThreadTimeOut(true);
+
+        return threadPoolExecutor;
+    }
+
+    /*
+     * guards are waited for by a request, so they are not queued. Without a free thread, the
+     * request evaluates the guard itself
+     */
+    private static ExecutorService newGuardExecutor() {
+        final int threads = 2 * Runtime.getRuntime().availableProcessors();
+
+        final AtomicInteger threadNumber = new AtomicInteger();
+
+        final ThreadFactory threadFactory = runnable -> {
+            final Thread thread = new Thread(runnable, "guice-vaadin-guards-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        return new ThreadPoolExecutor(
+                0, threads, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), threadFactory, new ThreadPoolExecutor.CallerRunsPolicy()
+        );
+    }
+
+    /*
+     * the tasks of a session beyond tasksPerSession wait here instead of in the executor
+     */
+    private final class SessionQueue {
+        private final Queue<Runnable> pending = new ArrayDeque<>();
+        private int running;
+
+        private void submit(Runnable task) {
+            synchronized (this) {
+                if (running == tasksPerSession) {
+                    if (pending.size() == MAX_PENDING_TASKS_PER_SESSION) {
+                        throw new RejectedExecutionException("the session already has " + MAX_PENDING_TASKS_PER_SESSION + " pending tasks");
+                    }
+
+                    pending.add(task);
+                    return;
+                }
+
+                running++;
+            }
+
+            dispatch(task);
+        }
+
+        private void dispatch(Runnable task) {
+            try {
+                executorService.execute(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        next();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                next();
+                throw e;
+            }
+        }
+
+        private void next() {
+            final Runnable next;
+
+            synchronized (this) {
+                next = pending.poll();
+
+                if (next == null) {
+                    running--;
+                    return;
+                }
+            }
+
+            dispatch(next);
+        }
+    }
+
+    /*
+     * holds session and UI strongly while the task waits, CurrentInstance only keeps weak references
+     */
+    private final class ScopedTask implements Runnable {
+        private final Runnable task;
+        private final VaadinSession vaadinSession;
+        private final UI ui;
+        private final ScopeMap uiScopeMap;
+        private final ScopeMap sessionScopeMap;
+
+        private ScopedTask(Runnable task, VaadinSession vaadinSession, UI ui, ScopeMap uiScopeMap, ScopeMap sessionScopeMap) {
+            this.task = task;
+            this.vaadinSession = vaadinSession;
+            this.ui = ui;
+            this.uiScopeMap = uiScopeMap;
+            this.sessionScopeMap = sessionScopeMap;
+        }
+
+        @Override
+        public void run() {
+            //CurrentInstance.setCurrent(UI) would take the session from the UI, which is not set before the UI is attached
+            final Map<Class<?>, CurrentInstance> previousInstances = vaadinSession != null
+                    ? CurrentInstance.setCurrent(vaadinSession)
+                    : new HashMap<>();
+
+            if (ui != null) {
+                previousInstances.put(UI.class, CurrentInstance.set(UI.class, ui));
+            }
+
+            if (uiScopeMap != null) {
+                uiScope.enterCapturedScope(uiScopeMap);
+            }
+
+            //the session's lock is not held, so the session-scope must not be looked up in it's attributes
+            if (sessionScopeMap != null) {
+                vaadinSessionScope.enterCapturedScope(sessionScopeMap);
+            }
+
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "background-task failed", e);
+            } finally {
+                if (uiScopeMap != null) {
+                    uiScope.endScopeInit();
+                }
+
+                if (sessionScopeMap != null) {
+                    vaadinSessionScope.exitCapturedScope();
+                }
+
+                CurrentInstance.restoreInstances(previousInstances);
+            }
+        }
+    }
+}
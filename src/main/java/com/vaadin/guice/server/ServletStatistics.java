@@ -0,0 +1,100 @@
+package com.vaadin.guice.server;
+
+import com.google.inject.Key;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static java.util.Comparator.comparing;
+
+/**
+ * exposes the counters of a {@link GuiceVaadinServlet}'s scopes and UI-provider
+ */
+final class ServletStatistics implements GuiceVaadinServletMXBean {
+
+    private final GuiceVaadinServlet guiceVaadinServlet;
+
+    ServletStatistics(GuiceVaadinServlet guiceVaadinServlet) {
+        this.guiceVaadinServlet = guiceVaadinServlet;
+    }
+
+    @Override
+    public long getLiveSessions() {
+        return guiceVaadinServlet.getLiveSessions();
+    }
+
+    @Override
+    public int getLiveUIs() {
+        return guiceVaadinServlet.getUiScoper().getLiveUIs();
+    }
+
+    @Override
+    public Map<String, Integer> getTopScopedKeys() {
+        final Map<Key<?>, Integer> instancesByKey = new HashMap<>();
+
+        final Consumer<ScopeMap> countKeys = scopeMap -> scopeMap.forEachKey(key -> instancesByKey.merge(key, 1, Integer::sum));
+
+        guiceVaadinServlet.getUiScoper().forEachScopeMap(countKeys);
+        guiceVaadinServlet.getVaadinSessionScoper().forEachScopeMap(countKeys);
+
+        final Map<String, Integer> topScopedKeys = new LinkedHashMap<>();
+
+        instancesByKey
+                .entrySet()
+                .stream()
+                .sorted(comparing(Map.Entry<Key<?>, Integer>::getValue).reversed())
+                .limit(TOP_SCOPED_KEYS)
+                .forEach(entry -> topScopedKeys.put(entry.getKey().toString(), entry.getValue()));
+
+        return topScopedKeys;
+    }
+
+    @Override
+    public long getUIScopeHits() {
+        return guiceVaadinServlet.getUiScoper().getStatistics().getHits();
+    }
+
+    @Override
+    public long getUIScopeMisses() {
+        return guiceVaadinServlet.getUiScoper().getStatistics().getMisses();
+    }
+
+    @Override
+    public long getSessionScopeHits() {
+        return guiceVaadinServlet.getVaadinSessionScoper().getStatistics().getHits();
+    }
+
+    @Override
+    public long getSessionScopeMisses() {
+        return guiceVaadinServlet.getVaadinSessionScoper().getStatistics().getMisses();
+    }
+
+    @Override
+    public long getViewScopeHits() {
+        return guiceVaadinServlet.getViewScoper().getStatistics().getHits();
+    }
+
+    @Override
+    public long getViewScopeMisses() {
+        return guiceVaadinServlet.getViewScoper().getStatistics().getMisses();
+    }
+
+    @Override
+    public Map<String, Long> getUICreations() {
+        final Map<String, Long> uiCreations = new LinkedHashMap<>();
+
+        guiceVaadinServlet
+                .getGuiceUIProvider()
+                .getCreations()
+                .forEach((uiClass, creations) -> uiCreations.put(uiClass.getName(), creations.sum()));
+
+        return uiCreations;
+    }
+
+    @Override
+    public long getReclaimedScopeEntries() {
+        return guiceVaadinServlet.getReclaimedScopeEntries();
+    }
+}
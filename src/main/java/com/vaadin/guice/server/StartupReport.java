@@ -0,0 +1,176 @@
+package com.vaadin.guice.server;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * durations of the phases of {@link GuiceVaadinServlet#init(javax.servlet.ServletConfig)} and the
+ * number of classes, modules and bindings that were set up.
+ *
+ * @see GuiceVaadinServlet#getStartupReport()
+ */
+public final class StartupReport {
+
+    public enum Phase {
+        /**
+         * finding UIs, Views, Modules and listeners, either in the compiled index or by scanning
+         * the classpath
+         */
+        CLASS_LOOKUP,
+
+        /**
+         * reflective construction of the modules
+         */
+        MODULE_CREATION,
+
+        /**
+         * combining the modules with {@link com.google.inject.util.Modules#override(com.google.inject.Module...)}
+         * and recording their bindings
+         */
+        MODULE_OVERRIDE,
+
+        /**
+         * {@link GuiceVaadinServlet#prepareInjector(com.google.inject.Module...)}
+         */
+        INJECTOR_CREATION,
+
+        /**
+         * the parallel creation of all singletons if the injector's stage is {@link
+         * com.google.inject.Stage#PRODUCTION}, see {@link com.vaadin.guice.annotation.InjectorStage}
+         */
+        SINGLETON_CREATION,
+
+        /**
+         * the initialization of the {@link com.vaadin.server.VaadinServlet}
+         */
+        VAADIN_INITIALIZATION
+    }
+
+    private final Map<Phase, Long> nanosByPhase = new EnumMap<>(Phase.class);
+    private boolean compiledIndexUsed;
+    private int classes;
+    private int modules;
+    private int bindings;
+    private int uis;
+    private int views;
+    private int listeners;
+
+    StartupReport() {
+    }
+
+    /**
+     * the duration of a phase, or {@link Duration#ZERO} if the phase has not been completed
+     */
+    public Duration getDuration(Phase phase) {
+        return Duration.ofNanos(nanosByPhase.getOrDefault(phase, 0L));
+    }
+
+    /**
+     * the sum of the durations of all phases
+     */
+    public Duration getTotalDuration() {
+        return Duration.ofNanos(nanosByPhase.values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    /**
+     * true if the classes were read from an index written by {@link com.vaadin.guice.processor.GuiceVaadinIndexProcessor},
+     * false if the classpath was scanned
+     */
+    public boolean isCompiledIndexUsed() {
+        return compiledIndexUsed;
+    }
+
+    /**
+     * the number of distinct classes that were found in the scanned packages
+     */
+    public int getClasses() {
+        return classes;
+    }
+
+    public int getModules() {
+        return modules;
+    }
+
+    /**
+     * the number of bindings in the injector right after it's creation
+     */
+    public int getBindings() {
+        return bindings;
+    }
+
+    public int getUIs() {
+        return uis;
+    }
+
+    public int getViews() {
+        return views;
+    }
+
+    /**
+     * the number of ViewChangeListeners, BootstrapListeners, RequestHandlers and
+     * VaadinServiceInitListeners
+     */
+    public int getListeners() {
+        return listeners;
+    }
+
+    void setDuration(Phase phase, long nanos) {
+        nanosByPhase.put(phase, nanos);
+    }
+
+    void setCompiledIndexUsed(boolean compiledIndexUsed) {
+        this.compiledIndexUsed = compiledIndexUsed;
+    }
+
+    void setClasses(int classes) {
+        this.classes = classes;
+    }
+
+    void setModules(int modules) {
+        this.modules = modules;
+    }
+
+    void setBindings(int bindings) {
+        this.bindings = bindings;
+    }
+
+    void setUIs(int uis) {
+        this.uis = uis;
+    }
+
+    void setViews(int views) {
+        this.views = views;
+    }
+
+    void setListeners(int listeners) {
+        this.listeners = listeners;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(format("started in %d ms (", millis(getTotalDuration().toNanos())));
+
+        for (Phase phase : Phase.values()) {
+            if (phase.ordinal() > 0) {
+                builder.append(", ");
+            }
+
+            builder.append(phase.name().toLowerCase()).append(' ').append(millis(getDuration(phase).toNanos())).append(" ms");
+        }
+
+        return builder
+                .append(format(
+                        "), %d classes from %s, %d modules, %d bindings, %d UIs, %d views, %d listeners",
+                        classes, compiledIndexUsed ? "index" : "classpath scan", modules, bindings, uis, views, listeners
+                ))
+                .toString();
+    }
+
+    private static long millis(long nanos) {
+        return NANOSECONDS.toMillis(nanos);
+    }
+}
@@ -1,15 +1,17 @@
 package com.vaadin.guice.server;
 
+import com.google.common.collect.MapMaker;
 import com.google.inject.Key;
 import com.google.inject.Provider;
 import com.google.inject.Scope;
 
+import com.vaadin.server.ClientConnector;
 import com.vaadin.server.VaadinSession;
 import com.vaadin.ui.UI;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -17,56 +19,200 @@ import static com.google.common.base.Preconditions.checkState;
 
 class UIScope implements Scope {
 
-    private final Map<VaadinSession, Map<UI, Map<Key<?>, Object>>> scopesBySession = new WeakHashMap<>();
-    private Map<Key<?>, Object> initializationScopeSet;
-    private Class<? extends UI> currentlyCreatedUIClass;
+    /*
+     * weak keys, so entries are dropped when sessions and UI's are garbage-collected
+     */
+    private final ConcurrentMap<VaadinSession, ConcurrentMap<UI, ScopeMap>> scopesBySession = new MapMaker().weakKeys().makeMap();
 
-    @Override
-    @SuppressWarnings("unchecked")
-    public <T> Provider<T> scope(Key<T> key, Provider<T> provider) {
-        return () -> {
-            final VaadinSession vaadinSession = checkNotNull(VaadinSession.getCurrent());
+    /*
+     * UI-creation is tracked per thread, so UIs of different sessions can be constructed in parallel.
+     * Worker-threads of the ScopedExecutor use it for the UI-scope they were given
+     */
+    private final ThreadLocal<ScopeInit> currentScopeInit = new ThreadLocal<>();
 
-            Map<UI, Map<Key<?>, Object>> uisToScopedObjects = scopesBySession.computeIfAbsent(vaadinSession, session -> new WeakHashMap<>());
+    private final LongAdder reclaimedEntries = new LongAdder();
 
-            final Map<Key<?>, Object> scopedObjects = getScopedObjects(uisToScopedObjects);
+    private final ScopeMap.Statistics statistics = new ScopeMap.Statistics("ui");
 
-            return (T) scopedObjects.computeIfAbsent(key, k -> provider.get());
-        };
+    @Override
+    public <T> Provider<T> scope(Key<T> key, Provider<T> provider) {
+        return () -> getScopeMap().get(key, provider);
     }
 
-    private Map<Key<?>, Object> getScopedObjects(Map<UI, Map<Key<?>, Object>> uisToScopedObjects) {
-        if (initializationScopeSet != null) {
-            return initializationScopeSet;
-        } else {
-            final UI currentUI = checkNotNull(UI.getCurrent());
+    private ScopeMap getScopeMap() {
+        final ScopeInit scopeInit = currentScopeInit.get();
 
-            return checkNotNull(uisToScopedObjects.get(currentUI));
+        if (scopeInit != null) {
+            return scopeInit.scopeMap;
         }
+
+        final VaadinSession vaadinSession = checkNotNull(VaadinSession.getCurrent());
+
+        final UI currentUI = checkNotNull(UI.getCurrent());
+
+        final ConcurrentMap<UI, ScopeMap> uisToScopeMaps = checkNotNull(scopesBySession.get(vaadinSession));
+
+        return checkNotNull(uisToScopeMaps.get(currentUI));
     }
 
     Class<? extends UI> currentlyCreatedUIClass() {
-        return currentlyCreatedUIClass;
+        final ScopeInit scopeInit = currentScopeInit.get();
+
+        return scopeInit != null ? scopeInit.uiClass : null;
     }
 
     void startScopeInit(Class<? extends UI> currentlyCreatedUIClass) {
-        checkState(initializationScopeSet == null);
-        initializationScopeSet = new HashMap<>();
-        this.currentlyCreatedUIClass = currentlyCreatedUIClass;
+        checkState(currentScopeInit.get() == null);
+        currentScopeInit.set(new ScopeInit(currentlyCreatedUIClass, statistics));
     }
 
     void flushInitialScopeSet(UI ui) {
         checkNotNull(ui);
-        checkState(initializationScopeSet != null);
-        checkArgument(ui.getClass().equals(currentlyCreatedUIClass));
 
-        final Map<UI, Map<Key<?>, Object>> uiToScopedObjects = scopesBySession.computeIfAbsent(VaadinSession.getCurrent(), session -> new WeakHashMap<>());
+        final ScopeInit scopeInit = currentScopeInit.get();
+
+        checkState(scopeInit != null);
+        checkArgument(ui.getClass().equals(scopeInit.uiClass));
+
+        final VaadinSession vaadinSession = checkNotNull(VaadinSession.getCurrent());
+
+        final ConcurrentMap<UI, ScopeMap> uisToScopeMaps = scopesBySession.computeIfAbsent(
+                vaadinSession,
+                session -> new MapMaker().weakKeys().makeMap()
+        );
 
-        checkState(uiToScopedObjects.put(ui, initializationScopeSet) == null);
+        checkState(uisToScopeMaps.putIfAbsent(ui, scopeInit.scopeMap) == null);
+
+        //the UI's instances are released when it is removed from the session, not when it is garbage-collected
+        ui.addDetachListener(new ReleaseOnDetach(this, vaadinSession, ui));
+    }
+
+    /**
+     * releases the UI-scoped instances of a UI
+     */
+    void release(VaadinSession vaadinSession, UI ui) {
+        final ConcurrentMap<UI, ScopeMap> uisToScopeMaps = scopesBySession.get(vaadinSession);
+
+        if (uisToScopeMaps == null) {
+            return;
+        }
+
+        final ScopeMap scopeMap = uisToScopeMaps.remove(ui);
+
+        if (scopeMap != null) {
+            reclaimedEntries.add(scopeMap.clear());
+        }
+    }
+
+    /**
+     * releases the UI-scoped instances of all UIs of a session
+     */
+    void release(VaadinSession vaadinSession) {
+        final ConcurrentMap<UI, ScopeMap> uisToScopeMaps = scopesBySession.remove(vaadinSession);
+
+        if (uisToScopeMaps != null) {
+            uisToScopeMaps.values().forEach(scopeMap -> reclaimedEntries.add(scopeMap.clear()));
+        }
+    }
+
+    /**
+     * the number of instances that were released by {@link #release(VaadinSession, UI)} and
+     * {@link #release(VaadinSession)}
+     */
+    long getReclaimedEntries() {
+        return reclaimedEntries.sum();
+    }
+
+    ScopeMap.Statistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * the number of UIs that currently hold UI-scoped instances
+     */
+    int getLiveUIs() {
+        int liveUIs = 0;
+
+        for (ConcurrentMap<UI, ScopeMap> uisToScopeMaps : scopesBySession.values()) {
+            liveUIs += uisToScopeMaps.size();
+        }
+
+        return liveUIs;
+    }
+
+    void forEachScopeMap(Consumer<ScopeMap> consumer) {
+        scopesBySession.values().forEach(uisToScopeMaps -> uisToScopeMaps.values().forEach(consumer));
+    }
+
+    /**
+     * the UI-scope that lookups on this thread currently use, null if there is none
+     */
+    ScopeMap captureScopeMap() {
+        final ScopeInit scopeInit = currentScopeInit.get();
+
+        if (scopeInit != null) {
+            return scopeInit.scopeMap;
+        }
+
+        final VaadinSession vaadinSession = VaadinSession.getCurrent();
+        final UI currentUI = UI.getCurrent();
+
+        if (vaadinSession == null || currentUI == null) {
+            return null;
+        }
+
+        final ConcurrentMap<UI, ScopeMap> uisToScopeMaps = scopesBySession.get(vaadinSession);
+
+        return uisToScopeMaps != null ? uisToScopeMaps.get(currentUI) : null;
+    }
+
+    /**
+     * makes UI-scoped lookups on this thread use a scope captured by {@link #captureScopeMap()}
+     * until {@link #endScopeInit()} is called
+     */
+    void enterCapturedScope(ScopeMap scopeMap) {
+        checkState(currentScopeInit.get() == null);
+        currentScopeInit.set(new ScopeInit(null, scopeMap));
     }
 
     void endScopeInit() {
-        initializationScopeSet = null;
-        currentlyCreatedUIClass = null;
+        currentScopeInit.remove();
+    }
+
+    /*
+     * listeners are serialized with the UI, the scope is not
+     */
+    private static final class ReleaseOnDetach implements ClientConnector.DetachListener {
+        private final transient UIScope uiScope;
+        private final transient VaadinSession vaadinSession;
+        private final transient UI ui;
+
+        private ReleaseOnDetach(UIScope uiScope, VaadinSession vaadinSession, UI ui) {
+            this.uiScope = uiScope;
+            this.vaadinSession = vaadinSession;
+            this.ui = ui;
+        }
+
+        @Override
+        public void detach(ClientConnector.DetachEvent event) {
+            if (uiScope != null) {
+                uiScope.release(vaadinSession, ui);
+            }
+        }
+    }
+
+    private static final class ScopeInit {
+        //null for scopes that were captured for a worker-thread
+        private final Class<? extends UI> uiClass;
+        private final ScopeMap scopeMap;
+
+        private ScopeInit(Class<? extends UI> uiClass, ScopeMap.Statistics statistics) {
+            this(uiClass, new ScopeMap(statistics));
+        }
+
+        private ScopeInit(Class<? extends UI> uiClass, ScopeMap scopeMap) {
+            this.uiClass = uiClass;
+            this.scopeMap = scopeMap;
+        }
     }
 }
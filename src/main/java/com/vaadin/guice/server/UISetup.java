@@ -1,12 +1,16 @@
 package com.vaadin.guice.server;
 
 import com.google.inject.Binding;
+import com.google.inject.Injector;
+import com.google.inject.Provider;
 import com.google.inject.matcher.AbstractMatcher;
 import com.google.inject.spi.ProvisionListener;
 
 import com.vaadin.guice.annotation.GuiceUI;
+import com.vaadin.guice.annotation.IndependentGuard;
 import com.vaadin.guice.annotation.UIScope;
 import com.vaadin.navigator.View;
+import com.vaadin.navigator.ViewChangeListener;
 import com.vaadin.navigator.ViewDisplay;
 import com.vaadin.server.ErrorHandler;
 import com.vaadin.ui.Component;
@@ -14,15 +18,39 @@ import com.vaadin.ui.ComponentContainer;
 import com.vaadin.ui.SingleComponentContainer;
 import com.vaadin.ui.UI;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static java.lang.String.format;
 import static java.lang.reflect.Modifier.isAbstract;
 
+/**
+ * sets up the navigator, content and error-handler of every provisioned UI. The {@link GuiceUI}
+ * annotations are validated once when the UISetup is created, every UI-class gets a {@link Plan}
+ * of what is to be set up.
+ */
 class UISetup extends AbstractMatcher<Binding<?>> implements ProvisionListener {
-    private final GuiceVaadinServlet guiceVaadinServlet;
+    private final Map<Class<? extends UI>, Plan> plans = new HashMap<>();
+    private final UIUpdateDispatchers uiUpdateDispatchers;
 
     UISetup(GuiceVaadinServlet guiceVaadinServlet) {
-        this.guiceVaadinServlet = guiceVaadinServlet;
+        uiUpdateDispatchers = guiceVaadinServlet.getUiUpdateDispatchers();
+
+        for (Class<? extends UI> uiClass : guiceVaadinServlet.getUiClasses()) {
+            plans.put(uiClass, new Plan(uiClass, guiceVaadinServlet));
+        }
+    }
+
+    /**
+     * resolves the guice-providers of all plans, needs to be called once the injector is created
+     */
+    void resolveProviders(Injector injector) {
+        plans.values().forEach(plan -> plan.resolveProviders(injector));
     }
 
     @Override
@@ -34,96 +62,229 @@ class UISetup extends AbstractMatcher<Binding<?>> implements ProvisionListener {
 
     @Override
     public <T> void onProvision(ProvisionInvocation<T> provisionInvocation) {
-        UI ui = (UI) provisionInvocation.provision();
+        UI setUpUI = null;
+
+        //dispatchers created along with the UI or it's content cannot know the UI until it is set up
+        uiUpdateDispatchers.startUICreation();
+
+        try {
+            UI ui = (UI) provisionInvocation.provision();
+
+            final Plan plan = plans.get(ui.getClass());
+
+            checkState(plan != null, "%s is not among the UIs found in packagesToScan", ui.getClass());
+
+            final Object uiSetup = FlightRecorderEvents.beginUISetup();
+
+            try {
+                plan.setUp(ui);
+            } finally {
+                FlightRecorderEvents.commitUISetup(uiSetup, ui.getClass());
+            }
+
+            setUpUI = ui;
+        } finally {
+            uiUpdateDispatchers.endUICreation(setUpUI);
+        }
+    }
+
+    /**
+     * the deferred init of a navigator with {@link com.vaadin.guice.annotation.GuiceUI#lazyNavigator()},
+     * for navigators that lost it when they were serialized
+     */
+    Runnable navigatorInit(GuiceNavigator navigator, UI ui) {
+        final Plan plan = plans.get(ui.getClass());
+
+        checkState(plan != null, "%s is not among the UIs found in packagesToScan", ui.getClass());
+
+        return () -> plan.initNavigator(navigator, ui);
+    }
+
+    /*
+     * the view-container's type decides how the navigator displays views
+     */
+    private interface NavigatorInitializer {
+        void init(GuiceNavigator navigator, UI ui, Component viewContainer);
+    }
+
+    private static final class Plan {
+        private final GuiceUI annotation;
+        private final List<Class<? extends ViewChangeListener>> viewChangeListenerClasses;
+        //the timeouts of IndependentGuards, 0 for ordered listeners
+        private final long[] guardTimeouts;
+        private final Executor guardExecutor;
+        private final NavigatorInitializer navigatorInitializer;
+        private final GuiceViewProvider viewProvider;
+        private final ViewScope viewScope;
+
+        private Provider<? extends Component> viewContainer;
+        private Provider<? extends GuiceNavigator> navigator;
+        private List<Provider<? extends ViewChangeListener>> viewChangeListeners;
+        private ErrorViewProvider errorViewProvider;
+        private Provider<? extends Component> content;
+        private Provider<? extends ErrorHandler> errorHandler;
+        private boolean providersResolved;
+
+        private Plan(Class<? extends UI> uiClass, GuiceVaadinServlet guiceVaadinServlet) {
+            annotation = uiClass.getAnnotation(GuiceUI.class);
+
+            checkArgument(annotation != null, "%s needs a GuiceUI-annotation", uiClass);
 
-        final Class<? extends UI> uiClass = ui.getClass();
+            final Class<? extends Component> viewContainerClass = annotation.viewContainer();
 
-        GuiceUI annotation = uiClass.getAnnotation(GuiceUI.class);
+            if (!Component.class.equals(viewContainerClass)) {
 
-        checkState(annotation != null);
+                checkState(
+                        !uiClass.equals(viewContainerClass),
+                        "%s cannot be used as it's own viewContainer", uiClass
+                );
+
+                checkState(
+                        viewContainerClass.isAnnotationPresent(UIScope.class),
+                        "%s is annotated with having %s as it's viewContainer, but this class does not have a @UIScope annotation. " +
+                                "ViewContainers must be put in UIScope",
+                        uiClass, viewContainerClass
+                );
 
-        Class<? extends Component> viewContainerClass = annotation.viewContainer();
+                if (ViewDisplay.class.isAssignableFrom(viewContainerClass)) {
+                    navigatorInitializer = (navigator, ui, viewContainer) -> navigator.init(ui, (ViewDisplay) viewContainer);
+                } else if (ComponentContainer.class.isAssignableFrom(viewContainerClass)) {
+                    navigatorInitializer = (navigator, ui, viewContainer) -> navigator.init(ui, (ComponentContainer) viewContainer);
+                } else if (SingleComponentContainer.class.isAssignableFrom(viewContainerClass)) {
+                    navigatorInitializer = (navigator, ui, viewContainer) -> navigator.init(ui, (SingleComponentContainer) viewContainer);
+                } else {
+                    throw new IllegalArgumentException(
+                            format(
+                                    "%s is set as viewContainer() in @GuiceUI of %s, must be either ComponentContainer, SingleComponentContainer or ViewDisplay",
+                                    viewContainerClass,
+                                    uiClass
+                            )
+                    );
+                }
 
-        if (!Component.class.equals(viewContainerClass)) {
+                viewChangeListenerClasses = new ArrayList<>(guiceVaadinServlet.getViewChangeListeners(uiClass));
 
-            checkState(
-                !uiClass.equals(viewContainerClass),
-                "%s cannot be used as it's own viewContainer", uiClass
-            );
+                guardTimeouts = new long[viewChangeListenerClasses.size()];
 
-            checkState(
-                    viewContainerClass.isAnnotationPresent(UIScope.class),
-                    "%s is annotated with having %s as it's viewContainer, but this class does not have a @UIScope annotation. " +
-                            "ViewContainers must be put in UIScope",
-                    uiClass, viewContainerClass
-            );
+                for (int i = 0; i < viewChangeListenerClasses.size(); i++) {
+                    final Class<? extends ViewChangeListener> viewChangeListenerClass = viewChangeListenerClasses.get(i);
+                    final IndependentGuard guard = viewChangeListenerClass.getAnnotation(IndependentGuard.class);
 
-            Component defaultView = guiceVaadinServlet.getInjector().getInstance(viewContainerClass);
+                    if (guard != null) {
+                        checkArgument(guard.timeout() > 0, "timeout of %s must be positive, is %s", viewChangeListenerClass, guard.timeout());
 
-            GuiceNavigator navigator = guiceVaadinServlet.getInjector().getInstance(annotation.navigator());
+                        guardTimeouts[i] = guard.unit().toNanos(guard.timeout());
+                    }
+                }
 
-            if (defaultView instanceof ViewDisplay) {
-                navigator.init(ui, (ViewDisplay) defaultView);
-            } else if (defaultView instanceof ComponentContainer) {
-                navigator.init(ui, (ComponentContainer) defaultView);
-            } else if (defaultView instanceof SingleComponentContainer) {
-                navigator.init(ui, (SingleComponentContainer) defaultView);
+                //guards must not wait behind the session's background-tasks
+                guardExecutor = guiceVaadinServlet.getScopedExecutor().forGuards();
+                viewProvider = guiceVaadinServlet.getViewProvider();
+                viewScope = guiceVaadinServlet.getViewScoper();
             } else {
-                throw new IllegalArgumentException(
-                        format(
-                                "%s is set as viewContainer() in @GuiceUI of %s, must be either ComponentContainer, SingleComponentContainer or ViewDisplay",
-                                viewContainerClass,
-                                uiClass
-                        )
+                navigatorInitializer = null;
+                viewChangeListenerClasses = null;
+                guardTimeouts = null;
+                guardExecutor = null;
+                viewProvider = null;
+                viewScope = null;
+            }
+
+            final Class<? extends Component> contentClass = annotation.content();
+
+            if (!Component.class.equals(contentClass)) {
+                checkState(
+                        !uiClass.equals(contentClass),
+                        "%s cannot be used as it's own content",
+                        uiClass
+                );
+
+                checkState(
+                        contentClass.isAnnotationPresent(UIScope.class),
+                        "%s is annotated with having %s as it's content, but this class does not have a @UIScope annotation. " +
+                                "Contents must be put in UIScope",
+                        uiClass, contentClass
                 );
             }
 
-            if (!View.class.equals(annotation.errorView())) {
-                navigator.setErrorProvider(new ErrorViewProvider(guiceVaadinServlet, annotation.errorView()));
+            if (!ErrorHandler.class.equals(annotation.errorHandler())) {
+                checkState(
+                        !uiClass.equals(annotation.errorHandler()),
+                        "%s cannot be used as it's own error-handler",
+                        uiClass
+                );
             }
+        }
 
-            guiceVaadinServlet
-                    .getViewChangeListeners(uiClass)
-                    .stream()
-                    .map(guiceVaadinServlet.getInjector()::getInstance)
-                    .forEach(navigator::addViewChangeListener);
+        private void resolveProviders(Injector injector) {
+            if (navigatorInitializer != null) {
+                viewContainer = injector.getProvider(annotation.viewContainer());
+                navigator = injector.getProvider(annotation.navigator());
 
-            navigator.addProvider(guiceVaadinServlet.getViewProvider());
+                viewChangeListeners = new ArrayList<>(viewChangeListenerClasses.size());
+
+                for (Class<? extends ViewChangeListener> viewChangeListenerClass : viewChangeListenerClasses) {
+                    viewChangeListeners.add(injector.getProvider(viewChangeListenerClass));
+                }
+
+                if (!View.class.equals(annotation.errorView())) {
+                    errorViewProvider = new ErrorViewProvider(injector.getProvider(annotation.errorView()));
+                }
+            }
 
-            ui.setNavigator(navigator);
+            if (!Component.class.equals(annotation.content())) {
+                content = injector.getProvider(annotation.content());
+            }
+
+            if (!ErrorHandler.class.equals(annotation.errorHandler())) {
+                errorHandler = injector.getProvider(annotation.errorHandler());
+            }
+
+            providersResolved = true;
         }
 
-        Class<? extends Component> contentClass = annotation.content();
+        private void initNavigator(GuiceNavigator navigator, UI ui) {
+            navigatorInitializer.init(navigator, ui, viewContainer.get());
 
-        if (!Component.class.equals(contentClass)) {
-            checkState(
-                    !uiClass.equals(contentClass),
-                    "%s cannot be used as it's own content",
-                    uiClass
-            );
+            if (errorViewProvider != null) {
+                navigator.setErrorProvider(errorViewProvider);
+            }
 
-            checkState(
-                    contentClass.isAnnotationPresent(com.vaadin.guice.annotation.UIScope.class),
-                    "%s is annotated with having %s as it's viewContainer, but this class does not have a @UIScope annotation. " +
-                            "ViewContainers must be put in UIScope",
-                    uiClass, contentClass
-            );
+            for (int i = 0; i < viewChangeListeners.size(); i++) {
+                if (guardTimeouts[i] > 0) {
+                    navigator.addGuard(viewChangeListeners.get(i).get(), guardTimeouts[i], guardExecutor);
+                } else {
+                    navigator.addViewChangeListener(viewChangeListeners.get(i).get());
+                }
+            }
 
-            Component content = guiceVaadinServlet.getInjector().getInstance(contentClass);
+            navigator.addViewChangeListener(viewScope.getViewChangeListener());
 
-            ui.setContent(content);
+            navigator.addProvider(viewProvider);
         }
 
-        if (!ErrorHandler.class.equals(annotation.errorHandler())) {
-            checkState(
-                    !uiClass.equals(contentClass),
-                    "%s cannot be used as it's own error-handler",
-                    uiClass
-            );
+        private void setUp(UI ui) {
+            checkState(providersResolved, "providers are not resolved yet");
 
-            ErrorHandler errorHandler = guiceVaadinServlet.getInjector().getInstance(annotation.errorHandler());
+            if (navigatorInitializer != null) {
+                final GuiceNavigator navigator = this.navigator.get();
 
-            ui.setErrorHandler(errorHandler);
+                if (annotation.lazyNavigator()) {
+                    navigator.initOnFirstNavigation(ui, () -> initNavigator(navigator, ui));
+                } else {
+                    initNavigator(navigator, ui);
+                }
+
+                ui.setNavigator(navigator);
+            }
+
+            if (content != null) {
+                ui.setContent(content.get());
+            }
+
+            if (errorHandler != null) {
+                ui.setErrorHandler(errorHandler.get());
+            }
         }
     }
 }
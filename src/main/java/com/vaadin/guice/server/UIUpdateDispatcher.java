@@ -0,0 +1,167 @@
+package com.vaadin.guice.server;
+
+import com.vaadin.server.ErrorEvent;
+import com.vaadin.server.ErrorHandler;
+import com.vaadin.ui.UI;
+import com.vaadin.ui.UIDetachedException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * collects updates of a UI from any thread and applies them in a single {@link UI#access(Runnable)}
+ * per frame, see {@link com.vaadin.guice.annotation.UIUpdateRate}. Of the updates with the same
+ * key, only the latest one is applied. So no matter how often a background-task updates a
+ * component, the session is locked and changes are pushed once per frame.
+ * <pre>
+ * &#064;Inject
+ * UIUpdateDispatcher updateDispatcher;
+ *
+ * updateDispatcher.update(revenueTile, () -&gt; revenueTile.setValue(revenue));
+ * </pre>
+ * There is one dispatcher per UI, it can be injected wherever UI-scoped instances can.
+ */
+public final class UIUpdateDispatcher {
+
+    private final Supplier<? extends ScheduledExecutorService> scheduler;
+    private final Supplier<? extends Executor> accessExecutor;
+    private final long frameNanos;
+
+    //null while the UI is being created, written while holding this
+    private volatile UI ui;
+
+    //guarded by this, the updates keep the position of the first update of their key
+    private final Map<Object, Runnable> pending = new LinkedHashMap<>();
+    private boolean frameScheduled;
+    private boolean abandoned;
+
+    /**
+     * @param scheduler only times the frames, not called before the first frame is scheduled
+     * @param accessExecutor calls {@link UI#access(Runnable)}, which may apply the updates and push
+     * them on the calling thread
+     */
+    UIUpdateDispatcher(Supplier<? extends ScheduledExecutorService> scheduler, Supplier<? extends Executor> accessExecutor, long frameNanos, UI ui) {
+        this.scheduler = scheduler;
+        this.accessExecutor = accessExecutor;
+        this.frameNanos = frameNanos;
+        this.ui = ui;
+    }
+
+    /**
+     * queues an update that replaces the pending update with the same key, if there is one
+     *
+     * @param key usually the component that is updated
+     */
+    public void update(Object key, Runnable update) {
+        checkNotNull(key);
+        checkNotNull(update);
+
+        final boolean scheduleFrame;
+
+        synchronized (this) {
+            if (abandoned) {
+                return;
+            }
+
+            pending.put(key, update);
+
+            //updates queued while the UI is being created wait for setUI
+            scheduleFrame = ui != null && !frameScheduled;
+            frameScheduled |= scheduleFrame;
+        }
+
+        if (scheduleFrame) {
+            scheduleFrame();
+        }
+    }
+
+    /**
+     * queues an update that is applied in the next frame, without replacing any other update
+     */
+    public void update(Runnable update) {
+        update(new Object(), update);
+    }
+
+    void setUI(UI ui) {
+        final boolean scheduleFrame;
+
+        synchronized (this) {
+            this.ui = ui;
+            scheduleFrame = !pending.isEmpty() && !frameScheduled;
+            frameScheduled |= scheduleFrame;
+        }
+
+        if (scheduleFrame) {
+            scheduleFrame();
+        }
+    }
+
+    /**
+     * drops the pending and all further updates, for dispatchers whose UI was never created
+     */
+    synchronized void abandon() {
+        abandoned = true;
+        pending.clear();
+    }
+
+    private void scheduleFrame() {
+        scheduler.get().schedule(this::frame, frameNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /*
+     * runs on the scheduler, which must not be held up by any UI
+     */
+    private void frame() {
+        try {
+            accessExecutor.get().execute(this::access);
+        } catch (RejectedExecutionException e) {
+            dropPending();
+        }
+    }
+
+    private void access() {
+        try {
+            //UI#access only tries to lock the session, the updates are applied by whoever holds it
+            ui.access(this::applyPending);
+        } catch (UIDetachedException e) {
+            dropPending();
+        }
+    }
+
+    private synchronized void dropPending() {
+        pending.clear();
+        frameScheduled = false;
+    }
+
+    private void applyPending() {
+        final List<Runnable> updates;
+
+        synchronized (this) {
+            updates = new ArrayList<>(pending.values());
+            pending.clear();
+            frameScheduled = false;
+        }
+
+        for (Runnable update : updates) {
+            try {
+                update.run();
+            } catch (RuntimeException e) {
+                //one failing update must not stop the others
+                final ErrorHandler errorHandler = ErrorEvent.findErrorHandler(ui);
+
+                if (errorHandler != null) {
+                    errorHandler.error(new ErrorEvent(e));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.vaadin.guice.server;
+
+import com.vaadin.ui.UI;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * creates the {@link UIUpdateDispatcher}s of all UIs and the threads they share. The threads are
+ * started when the first frame is scheduled, so servlets whose UIs never dispatch updates do not
+ * start them at all. A dispatcher that is created along with it's UI gets the UI from {@link
+ * UISetup} once the UI is provisioned.
+ */
+final class UIUpdateDispatchers {
+
+    private final UIScope uiScope;
+    private final long frameNanos;
+    private final Supplier<? extends ScheduledExecutorService> schedulerFactory;
+    private final Supplier<? extends ExecutorService> accessExecutorFactory;
+
+    //the dispatchers that were created along with the UI that is provisioned on this thread
+    private final ThreadLocal<List<UIUpdateDispatcher>> awaitingUI = new ThreadLocal<>();
+
+    //guarded by this
+    private ScheduledExecutorService scheduler;
+    private ExecutorService accessExecutor;
+    private boolean shutDown;
+
+    UIUpdateDispatchers(UIScope uiScope, long frameNanos) {
+        this(uiScope, frameNanos, UIUpdateDispatchers::newScheduler, UIUpdateDispatchers::newAccessExecutor);
+    }
+
+    UIUpdateDispatchers(
+            UIScope uiScope,
+            long frameNanos,
+            Supplier<? extends ScheduledExecutorService> schedulerFactory,
+            Supplier<? extends ExecutorService> accessExecutorFactory
+    ) {
+        this.uiScope = uiScope;
+        this.frameNanos = frameNanos;
+        this.schedulerFactory = schedulerFactory;
+        this.accessExecutorFactory = accessExecutorFactory;
+    }
+
+    UIUpdateDispatcher newDispatcher() {
+        if (uiScope.currentlyCreatedUIClass() == null) {
+            return new UIUpdateDispatcher(this::getScheduler, this::getAccessExecutor, frameNanos, UI.getCurrent());
+        }
+
+        final UIUpdateDispatcher dispatcher = new UIUpdateDispatcher(this::getScheduler, this::getAccessExecutor, frameNanos, null);
+
+        final List<UIUpdateDispatcher> dispatchers = awaitingUI.get();
+
+        if (dispatchers != null) {
+            dispatchers.add(dispatcher);
+        }
+
+        return dispatcher;
+    }
+
+    /**
+     * to be called before a UI is provisioned on this thread
+     */
+    void startUICreation() {
+        awaitingUI.set(new ArrayList<>());
+    }
+
+    /**
+     * hands the UI to the dispatchers that were created along with it
+     *
+     * @param ui the provisioned UI, null if it failed to be created. The dispatchers then drop
+     *           their updates, they will never get a UI
+     */
+    void endUICreation(UI ui) {
+        final List<UIUpdateDispatcher> dispatchers = awaitingUI.get();
+
+        awaitingUI.remove();
+
+        if (dispatchers == null) {
+            return;
+        }
+
+        for (UIUpdateDispatcher dispatcher : dispatchers) {
+            if (ui != null) {
+                dispatcher.setUI(ui);
+            } else {
+                dispatcher.abandon();
+            }
+        }
+    }
+
+    synchronized void shutdown() {
+        shutDown = true;
+
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+
+        if (accessExecutor != null) {
+            accessExecutor.shutdownNow();
+        }
+    }
+
+    private synchronized ScheduledExecutorService getScheduler() {
+        if (scheduler == null) {
+            checkNotShutDown();
+            scheduler = schedulerFactory.get();
+        }
+
+        return scheduler;
+    }
+
+    private synchronized ExecutorService getAccessExecutor() {
+        if (accessExecutor == null) {
+            checkNotShutDown();
+            accessExecutor = accessExecutorFactory.get();
+        }
+
+        return accessExecutor;
+    }
+
+    private void checkNotShutDown() {
+        if (shutDown) {
+            throw new RejectedExecutionException("the servlet has been destroyed");
+        }
+    }
+
+    /*
+     * the frames of all UIs are scheduled by a single thread, which only hands them to the
+     * access-executor
+     */
+    private static ScheduledExecutorService newScheduler() {
+        final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            final Thread thread = new Thread(runnable, "guice-vaadin-ui-updates");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        scheduler.setRemoveOnCancelPolicy(true);
+
+        return scheduler;
+    }
+
+    /*
+     * UI#access applies the updates and pushes them on the calling thread if it gets the session's
+     * lock, so the frames of different UIs are accessed in parallel
+     */
+    private static ExecutorService newAccessExecutor() {
+        final int threads = Runtime.getRuntime().availableProcessors();
+
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                    final Thread thread = new Thread(runnable, "guice-vaadin-ui-access");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+        );
+
+        executor.allowCoreThreadTimeOut(true);
+
+        return executor;
+    }
+}
@@ -1,14 +1,23 @@
 package com.vaadin.guice.server;
 
 import com.google.inject.AbstractModule;
+import com.google.inject.Key;
+import com.google.inject.Provider;
+import com.google.inject.Stage;
 import com.google.inject.TypeLiteral;
+import com.google.inject.matcher.Matchers;
 
+import com.vaadin.guice.annotation.GuiceUI;
 import com.vaadin.guice.annotation.GuiceView;
 import com.vaadin.guice.annotation.NavigableViewClasses;
 import com.vaadin.guice.annotation.UIScope;
 import com.vaadin.guice.annotation.VaadinSessionScope;
 import com.vaadin.navigator.View;
+import com.vaadin.server.ErrorHandler;
+import com.vaadin.ui.Component;
+import com.vaadin.ui.UI;
 
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 
@@ -20,20 +29,42 @@ class VaadinModule extends AbstractModule {
     private final TypeLiteral<Map<String, Class<? extends View>>> mapOfViewClassesToStringsType = new TypeLiteral<Map<String, Class<? extends View>>>() {
     };
 
-    VaadinModule(GuiceVaadinServlet GuiceVaadinServlet) {
+    private final Set<Class<?>> scannedClasses;
+    private final Set<Key<?>> boundKeys;
+
+    /**
+     * @param scannedClasses UIs, Views and listeners that are to be bound explicitly
+     * @param boundKeys      keys that are already bound by the application's modules
+     */
+    VaadinModule(GuiceVaadinServlet GuiceVaadinServlet, Set<Class<?>> scannedClasses, Set<Key<?>> boundKeys) {
         this.guiceVaadinServlet = GuiceVaadinServlet;
+        this.scannedClasses = scannedClasses;
+        this.boundKeys = boundKeys;
     }
 
     @Override
     protected void configure() {
         bindScope(UIScope.class, guiceVaadinServlet.getUiScoper());
-        bindScope(GuiceView.class, guiceVaadinServlet.getUiScoper());
+        bindScope(GuiceView.class, guiceVaadinServlet.getViewScoper());
         bindScope(VaadinSessionScope.class, guiceVaadinServlet.getVaadinSessionScoper());
 
-        UISetup uiSetup = new UISetup(guiceVaadinServlet);
+        ProvisionProfiler provisionProfiler = guiceVaadinServlet.getProvisionProfiler();
+
+        //bound before UISetup, so the set up of UIs is part of their provisioning-time
+        if (provisionProfiler != null) {
+            bindListener(Matchers.any(), provisionProfiler);
+        }
+
+        UISetup uiSetup = guiceVaadinServlet.getUiSetup();
 
         bindListener(uiSetup, uiSetup);
 
+        bind(ScopedExecutor.class).toInstance(guiceVaadinServlet.getScopedExecutor());
+
+        bind(UIUpdateDispatcher.class)
+                .toProvider((Provider<UIUpdateDispatcher>) guiceVaadinServlet.getUiUpdateDispatchers()::newDispatcher)
+                .in(UIScope.class);
+
         bind(setOfViewClassesType)
                 .annotatedWith(NavigableViewClasses.class)
                 .toProvider(new NavigableViewsProvider(guiceVaadinServlet));
@@ -41,5 +72,41 @@ class VaadinModule extends AbstractModule {
         bind(mapOfViewClassesToStringsType)
                 .annotatedWith(NavigableViewClasses.class)
                 .toProvider(new NavigableViewsWithMappingProvider(guiceVaadinServlet));
+
+        bindExplicitly();
+
+        if (currentStage() == Stage.PRODUCTION) {
+            requestInjection(new EagerSingletons.Creation(guiceVaadinServlet.getStartupReport()));
+        }
+    }
+
+    /*
+     * guice would create just-in-time bindings for these classes on first use, under a global lock and
+     * with binding errors showing up on that request only
+     */
+    private void bindExplicitly() {
+        final Set<Class<?>> classes = new LinkedHashSet<>(scannedClasses);
+
+        for (Class<? extends UI> uiClass : guiceVaadinServlet.getUiClasses()) {
+            final GuiceUI annotation = uiClass.getAnnotation(GuiceUI.class);
+
+            if (!Component.class.equals(annotation.content())) {
+                classes.add(annotation.content());
+            }
+
+            if (!Component.class.equals(annotation.viewContainer())) {
+                classes.add(annotation.viewContainer());
+                classes.add(annotation.navigator());
+            }
+
+            if (!ErrorHandler.class.equals(annotation.errorHandler())) {
+                classes.add(annotation.errorHandler());
+            }
+        }
+
+        classes
+                .stream()
+                .filter(clazz -> !boundKeys.contains(Key.get(clazz)))
+                .forEach(this::bind);
     }
 }
@@ -1,30 +1,193 @@
 package com.vaadin.guice.server;
 
+import com.google.common.collect.MapMaker;
 import com.google.inject.Key;
 import com.google.inject.Provider;
 import com.google.inject.Scope;
 
+import com.vaadin.guice.annotation.VaadinSessionScopeStorage.Storage;
 import com.vaadin.server.VaadinSession;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.WeakHashMap;
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
 class VaadinSessionScope implements Scope {
 
-    private final Map<VaadinSession, Map<Key<?>, Object>> scopeMapsBySession = new WeakHashMap<>();
+    private static final String SCOPE_ATTRIBUTE = VaadinSessionScope.class.getName();
+
+    /*
+     * weak keys, so entries are dropped when sessions are garbage-collected. Null if the scope
+     * is stored in the session's attributes
+     */
+    private final ConcurrentMap<VaadinSession, ScopeMap> scopeMapsBySession;
+
+    /*
+     * the ScopeMaps stored in session-attributes, weak so they are dropped along with their
+     * sessions. Null if the scope is stored in the global map
+     */
+    private final Set<ScopeMap> attributeScopeMaps;
+
+    private final LongAdder reclaimedEntries = new LongAdder();
+
+    private final ScopeMap.Statistics statistics = new ScopeMap.Statistics("vaadinSession");
+
+    /*
+     * the scope of worker-threads of the ScopedExecutor, which do not hold the session's lock
+     */
+    private final ThreadLocal<ScopeMap> capturedScopeMap = new ThreadLocal<>();
+
+    VaadinSessionScope(Storage storage) {
+        if (checkNotNull(storage) == Storage.GLOBAL_MAP) {
+            this.scopeMapsBySession = new MapMaker().weakKeys().makeMap();
+            this.attributeScopeMaps = null;
+        } else {
+            this.scopeMapsBySession = null;
+            this.attributeScopeMaps = Collections.newSetFromMap(new MapMaker().weakKeys().makeMap());
+        }
+    }
 
     @Override
-    @SuppressWarnings("unchecked")
     public <T> Provider<T> scope(Key<T> key, Provider<T> provider) {
         return () -> {
-            final VaadinSession vaadinSession = checkNotNull(VaadinSession.getCurrent());
+            final ScopeMap captured = capturedScopeMap.get();
+
+            if (captured != null) {
+                return captured.get(key, provider);
+            }
 
-            final Map<Key<?>, Object> scopeMap = scopeMapsBySession.computeIfAbsent(vaadinSession, v -> new HashMap<>());
+            final VaadinSession vaadinSession = checkNotNull(VaadinSession.getCurrent());
 
-            return (T) scopeMap.computeIfAbsent(key, k -> provider.get());
+            return getScopeMap(vaadinSession).get(key, provider);
         };
     }
-}
\ No newline at end of file
+
+    private ScopeMap getScopeMap(VaadinSession vaadinSession) {
+        if (scopeMapsBySession != null) {
+            return scopeMapsBySession.computeIfAbsent(vaadinSession, v -> new ScopeMap(statistics));
+        }
+
+        ScopeAttribute scopeAttribute = (ScopeAttribute) vaadinSession.getAttribute(SCOPE_ATTRIBUTE);
+
+        if (scopeAttribute == null) {
+            scopeAttribute = new ScopeAttribute();
+            vaadinSession.setAttribute(SCOPE_ATTRIBUTE, scopeAttribute);
+        }
+
+        return scopeAttribute.getScopeMap(this);
+    }
+
+    /**
+     * the scope of the current session, to be entered by worker-threads with {@link
+     * #enterCapturedScope(ScopeMap)}. Session-attributes are only accessed with the session's lock
+     * held.
+     *
+     * @return the scope or null if there is no current session
+     */
+    ScopeMap captureScopeMap() {
+        final ScopeMap captured = capturedScopeMap.get();
+
+        if (captured != null) {
+            return captured;
+        }
+
+        final VaadinSession vaadinSession = VaadinSession.getCurrent();
+
+        if (vaadinSession == null) {
+            return null;
+        }
+
+        if (scopeMapsBySession != null || vaadinSession.hasLock()) {
+            return getScopeMap(vaadinSession);
+        }
+
+        final Lock lock = vaadinSession.getLockInstance();
+
+        lock.lock();
+
+        try {
+            return getScopeMap(vaadinSession);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * makes session-scoped lookups on this thread use a scope captured by {@link
+     * #captureScopeMap()} until {@link #exitCapturedScope()} is called
+     */
+    void enterCapturedScope(ScopeMap scopeMap) {
+        capturedScopeMap.set(checkNotNull(scopeMap));
+    }
+
+    void exitCapturedScope() {
+        capturedScopeMap.remove();
+    }
+
+    /**
+     * releases the session-scoped instances of a session, needs to be called with the session's
+     * lock held
+     */
+    void release(VaadinSession vaadinSession) {
+        final ScopeMap scopeMap;
+
+        if (scopeMapsBySession != null) {
+            scopeMap = scopeMapsBySession.remove(vaadinSession);
+        } else {
+            final ScopeAttribute scopeAttribute = (ScopeAttribute) vaadinSession.getAttribute(SCOPE_ATTRIBUTE);
+
+            vaadinSession.setAttribute(SCOPE_ATTRIBUTE, null);
+
+            scopeMap = scopeAttribute != null ? scopeAttribute.scopeMap : null;
+
+            if (scopeMap != null) {
+                attributeScopeMaps.remove(scopeMap);
+            }
+        }
+
+        if (scopeMap != null) {
+            reclaimedEntries.add(scopeMap.clear());
+        }
+    }
+
+    /**
+     * the number of instances that were released by {@link #release(VaadinSession)}
+     */
+    long getReclaimedEntries() {
+        return reclaimedEntries.sum();
+    }
+
+    ScopeMap.Statistics getStatistics() {
+        return statistics;
+    }
+
+    void forEachScopeMap(Consumer<ScopeMap> consumer) {
+        if (scopeMapsBySession != null) {
+            scopeMapsBySession.values().forEach(consumer);
+        } else {
+            attributeScopeMaps.forEach(consumer);
+        }
+    }
+
+    /*
+     * session-attributes are serialized along with the session, the scoped instances are not
+     */
+    private static final class ScopeAttribute implements Serializable {
+        private transient ScopeMap scopeMap;
+
+        private ScopeMap getScopeMap(VaadinSessionScope vaadinSessionScope) {
+            if (scopeMap == null) {
+                scopeMap = new ScopeMap(vaadinSessionScope.statistics);
+                vaadinSessionScope.attributeScopeMaps.add(scopeMap);
+            }
+
+            return scopeMap;
+        }
+    }
+}
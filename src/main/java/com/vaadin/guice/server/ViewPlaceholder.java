@@ -0,0 +1,74 @@
+package com.vaadin.guice.server;
+
+import com.vaadin.guice.annotation.AsyncView;
+import com.vaadin.navigator.View;
+import com.vaadin.navigator.ViewChangeListener.ViewChangeEvent;
+import com.vaadin.server.ErrorHandler;
+import com.vaadin.ui.Component;
+import com.vaadin.ui.CustomComponent;
+import com.vaadin.ui.UI;
+import com.vaadin.ui.UIDetachedException;
+
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * displayed in place of an {@link AsyncView} until the view is built. The view is built when the
+ * placeholder is entered, so vetoed navigations do not build it.
+ */
+final class ViewPlaceholder extends CustomComponent implements View {
+
+    //the placeholder is never serialized while its view is built
+    private final transient Supplier<View> view;
+    private final transient Executor executor;
+
+    ViewPlaceholder(Component placeholder, Supplier<View> view, Executor executor) {
+        this.view = view;
+        this.executor = executor;
+
+        setCompositionRoot(placeholder);
+    }
+
+    @Override
+    public void enter(ViewChangeEvent event) {
+        checkState(event.getNavigator() instanceof GuiceNavigator, "async views need a GuiceNavigator, %s is none", event.getNavigator());
+
+        final GuiceNavigator navigator = (GuiceNavigator) event.getNavigator();
+        final UI ui = navigator.getUI();
+
+        navigator.placeholderEntered();
+
+        executor.execute(() -> {
+            View builtView = null;
+            RuntimeException failure = null;
+
+            try {
+                builtView = view.get();
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+
+            final View finalView = builtView;
+            final RuntimeException finalFailure = failure;
+
+            try {
+                ui.access(() -> {
+                    navigator.placeholderDone(this, finalView, event);
+
+                    if (finalFailure != null) {
+                        //ErrorEvent alone would be the inherited Component.ErrorEvent
+                        final ErrorHandler errorHandler = com.vaadin.server.ErrorEvent.findErrorHandler(ui);
+
+                        if (errorHandler != null) {
+                            errorHandler.error(new com.vaadin.server.ErrorEvent(finalFailure));
+                        }
+                    }
+                });
+            } catch (UIDetachedException e) {
+                //the UI is gone, so is the navigator
+            }
+        });
+    }
+}
@@ -0,0 +1,108 @@
+package com.vaadin.guice.server;
+
+import com.google.inject.Injector;
+import com.google.inject.Provider;
+
+import com.vaadin.guice.annotation.AsyncView;
+import com.vaadin.navigator.View;
+import com.vaadin.ui.Component;
+import com.vaadin.ui.ProgressBar;
+
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * the views by their case-insensitive view-names, see {@link PathTrie}
+ */
+final class ViewRoutes {
+
+    private final PathTrie<Route> routes;
+
+    private ViewRoutes(PathTrie<Route> routes) {
+        this.routes = routes;
+    }
+
+    static ViewRoutes of(Map<String, Class<? extends View>> viewClassesByName) {
+        final PathTrie.Builder<Route> builder = PathTrie.builder();
+
+        viewClassesByName.forEach((viewName, viewClass) -> {
+            final Route existingRoute = builder.putIfAbsent(viewName, new Route(PathTrie.lowerCase(viewName), viewClass));
+
+            checkState(
+                    existingRoute == null,
+                    "%s and %s are both registered under the view-name %s",
+                    viewClass, existingRoute != null ? existingRoute.viewClass : null, viewName
+            );
+        });
+
+        return new ViewRoutes(builder.build());
+    }
+
+    /**
+     * the route whose view-name is the navigation-state's first segment, everything after the
+     * first '/' are parameters. View-names containing a '/' are never matched.
+     *
+     * @return the matching route or null
+     */
+    Route match(String navigationState) {
+        final int indexOfDelimiter = navigationState.indexOf('/');
+
+        return routes.longestMatch(navigationState, indexOfDelimiter != -1 ? indexOfDelimiter : navigationState.length());
+    }
+
+    /**
+     * @return the route registered under exactly this view-name, or null
+     */
+    Route exactMatch(String viewName) {
+        return routes.exactMatch(viewName);
+    }
+
+    void resolveProviders(Injector injector) {
+        routes.forEachValue(route -> {
+            route.provider = injector.getProvider(route.viewClass);
+
+            final AsyncView asyncView = route.viewClass.getAnnotation(AsyncView.class);
+
+            if (asyncView != null) {
+                route.placeholder = Component.class.equals(asyncView.placeholder())
+                        ? Route::defaultPlaceholder
+                        : injector.getProvider(asyncView.placeholder());
+            }
+        });
+    }
+
+    static final class Route {
+        final String viewName;
+        final Class<? extends View> viewClass;
+        private Provider<? extends View> provider;
+
+        //null unless the view is an AsyncView
+        private Provider<? extends Component> placeholder;
+
+        private Route(String viewName, Class<? extends View> viewClass) {
+            this.viewName = viewName;
+            this.viewClass = viewClass;
+        }
+
+        View getView() {
+            checkState(provider != null, "view-providers are not resolved yet");
+            return provider.get();
+        }
+
+        boolean isAsync() {
+            return placeholder != null;
+        }
+
+        Component getPlaceholder() {
+            checkState(placeholder != null, "%s is no AsyncView", viewClass);
+            return placeholder.get();
+        }
+
+        private static Component defaultPlaceholder() {
+            final ProgressBar progressBar = new ProgressBar();
+            progressBar.setIndeterminate(true);
+            return progressBar;
+        }
+    }
+}
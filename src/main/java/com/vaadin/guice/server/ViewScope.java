@@ -0,0 +1,292 @@
+package com.vaadin.guice.server;
+
+import com.google.inject.Key;
+import com.google.inject.Provider;
+import com.google.inject.Scope;
+
+import com.vaadin.guice.annotation.CachedView;
+import com.vaadin.guice.annotation.RetainedViews;
+import com.vaadin.navigator.View;
+import com.vaadin.navigator.ViewChangeListener;
+import com.vaadin.server.VaadinServlet;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * the scope of {@link com.vaadin.guice.annotation.GuiceView}s. Every UI keeps the view it
+ * currently displays and the most recently left views up to {@link #retainedViews}, views that
+ * have been left before are released on the next view-change. With {@link RetainedViews#ALL}, the
+ * default, views are kept as long as their UI exists, like UI-scoped instances. Views annotated with {@link
+ * CachedView} are kept apart from these, until they have been idle for longer than their maxIdle
+ * or until more than {@link #maxCachedViews} of them have been left, the least recently used first.
+ * Both is checked on the navigations of a UI only.
+ */
+class ViewScope implements Scope {
+
+    /*
+     * the maxIdle of views that are not cached
+     */
+    private static final long NOT_CACHED = -1;
+
+    /*
+     * the maxIdle of cached views that are kept as long as the UI exists
+     */
+    private static final long UNLIMITED = 0;
+
+    private final int retainedViews;
+
+    private final int maxCachedViews;
+
+    private final LongSupplier nanoTime;
+
+    private final LongAdder reclaimedEntries = new LongAdder();
+
+    private final ScopeMap.Statistics statistics = new ScopeMap.Statistics("view");
+
+    /*
+     * the views of a UI are UI-scoped themselves, so they are released along with the UI
+     */
+    private final Provider<Views> views;
+
+    private final ViewChangeListener viewChangeListener = new ReleaseOnViewChange(this);
+
+    ViewScope(UIScope uiScope, int retainedViews, int maxCachedViews) {
+        this(uiScope, retainedViews, maxCachedViews, System::nanoTime);
+    }
+
+    ViewScope(UIScope uiScope, int retainedViews, int maxCachedViews, LongSupplier nanoTime) {
+        checkArgument(retainedViews >= 0, "retainedViews must not be negative, is %s", retainedViews);
+        checkArgument(maxCachedViews >= 0, "maxCachedViews must not be negative, is %s", maxCachedViews);
+
+        this.retainedViews = retainedViews;
+        this.maxCachedViews = maxCachedViews;
+        this.nanoTime = nanoTime;
+        this.views = uiScope.scope(Key.get(Views.class), Views::new);
+    }
+
+    @Override
+    public <T> Provider<T> scope(Key<T> key, Provider<T> provider) {
+        final long maxIdle = maxIdle(key.getTypeLiteral().getRawType());
+
+        return () -> views.get().get(key, provider, maxIdle);
+    }
+
+    private static long maxIdle(Class<?> viewClass) {
+        final CachedView cachedView = viewClass.getAnnotation(CachedView.class);
+
+        if (cachedView == null) {
+            return NOT_CACHED;
+        }
+
+        checkArgument(cachedView.maxIdle() >= 0, "maxIdle of %s must not be negative, is %s", viewClass, cachedView.maxIdle());
+
+        return cachedView.unit().toNanos(cachedView.maxIdle());
+    }
+
+    /**
+     * the listener that releases the left views, to be added to every navigator
+     */
+    ViewChangeListener getViewChangeListener() {
+        return viewChangeListener;
+    }
+
+    /**
+     * the number of views that were released after they have been left
+     */
+    long getReclaimedEntries() {
+        return reclaimedEntries.sum();
+    }
+
+    ScopeMap.Statistics getStatistics() {
+        return statistics;
+    }
+
+    private void viewChanged(View newView) {
+        views.get().release(newView);
+    }
+
+    private final class Views {
+
+        //access-ordered, so the least recently used views come first
+        private final Map<Key<?>, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+        /*
+         * like ScopeMap, the view is built outside of the monitor, so building a view, which may take
+         * a while for async views, does not block the navigations of the UI. Only the bookkeeping is
+         * synchronized.
+         */
+        @SuppressWarnings("unchecked")
+        private <T> T get(Key<T> key, Provider<T> provider, long maxIdle) {
+            final Object existingInstance = lookup(key);
+
+            if (existingInstance != null) {
+                statistics.hit();
+                return (T) existingInstance;
+            }
+
+            statistics.miss();
+
+            final Object scopedProvision = FlightRecorderEvents.beginScopedProvision();
+
+            final T instance;
+
+            try {
+                instance = provider.get();
+            } finally {
+                FlightRecorderEvents.commitScopedProvision(scopedProvision, statistics.getScope(), key);
+            }
+
+            if (instance == null) {
+                return null;
+            }
+
+            return (T) publish(key, instance, maxIdle);
+        }
+
+        private synchronized Object lookup(Key<?> key) {
+            final Entry entry = entries.get(key);
+
+            if (entry == null) {
+                return null;
+            }
+
+            if (entry.isExpired(nanoTime.getAsLong())) {
+                entries.remove(key);
+                reclaimedEntries.increment();
+                return null;
+            }
+
+            return entry.instance;
+        }
+
+        /*
+         * a view that was built concurrently and published first is kept, like with putIfAbsent
+         */
+        private synchronized Object publish(Key<?> key, Object instance, long maxIdle) {
+            final Entry entry = entries.get(key);
+
+            if (entry != null) {
+                if (!entry.isExpired(nanoTime.getAsLong())) {
+                    return entry.instance;
+                }
+
+                reclaimedEntries.increment();
+            }
+
+            entries.put(key, new Entry(instance, maxIdle));
+
+            return instance;
+        }
+
+        private synchronized void release(View currentView) {
+            final long now = nanoTime.getAsLong();
+
+            int uncached = 0;
+            int cached = 0;
+
+            for (Iterator<Entry> iterator = entries.values().iterator(); iterator.hasNext(); ) {
+                final Entry entry = iterator.next();
+
+                if (entry.instance == currentView) {
+                    entry.leftAt = null;
+                } else if (entry.maxIdle == NOT_CACHED) {
+                    uncached++;
+                } else if (entry.isExpired(now)) {
+                    iterator.remove();
+                    reclaimedEntries.increment();
+                } else {
+                    if (entry.leftAt == null) {
+                        entry.leftAt = now;
+                    }
+
+                    cached++;
+                }
+            }
+
+            int excessUncached = uncached - retainedViews;
+            int excessCached = cached - maxCachedViews;
+
+            //least recently used first
+            for (Iterator<Entry> iterator = entries.values().iterator(); (excessUncached > 0 || excessCached > 0) && iterator.hasNext(); ) {
+                final Entry entry = iterator.next();
+
+                if (entry.instance == currentView) {
+                    continue;
+                }
+
+                if (entry.maxIdle == NOT_CACHED) {
+                    if (excessUncached > 0) {
+                        iterator.remove();
+                        reclaimedEntries.increment();
+                        excessUncached--;
+                    }
+                } else if (excessCached > 0) {
+                    iterator.remove();
+                    reclaimedEntries.increment();
+                    excessCached--;
+                }
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final Object instance;
+        private final long maxIdle;
+
+        //null while the view is displayed or has not been left yet
+        private Long leftAt;
+
+        private Entry(Object instance, long maxIdle) {
+            this.instance = instance;
+            this.maxIdle = maxIdle;
+        }
+
+        private boolean isExpired(long now) {
+            return maxIdle > UNLIMITED && leftAt != null && now - leftAt > maxIdle;
+        }
+    }
+
+    /*
+     * listeners are serialized with the navigator, the scope is not. Deserialized listeners get the
+     * scope from the servlet of the current request again
+     */
+    private static final class ReleaseOnViewChange implements ViewChangeListener {
+        private transient ViewScope viewScope;
+
+        private ReleaseOnViewChange(ViewScope viewScope) {
+            this.viewScope = viewScope;
+        }
+
+        @Override
+        public boolean beforeViewChange(ViewChangeEvent event) {
+            return true;
+        }
+
+        @Override
+        public void afterViewChange(ViewChangeEvent event) {
+            if (viewScope == null) {
+                viewScope = fromServlet();
+            }
+
+            viewScope.viewChanged(event.getNewView());
+        }
+
+        private static ViewScope fromServlet() {
+            final VaadinServlet vaadinServlet = VaadinServlet.getCurrent();
+
+            checkState(
+                    vaadinServlet instanceof GuiceVaadinServlet,
+                    "a navigator with views in view-scope was deserialized, it's next navigation needs to happen in a request of a GuiceVaadinServlet"
+            );
+
+            return ((GuiceVaadinServlet) vaadinServlet).getViewScoper();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.vaadin.guice.concurrency;
+
+import com.google.inject.Inject;
+
+import com.vaadin.guice.annotation.GuiceUI;
+import com.vaadin.server.VaadinRequest;
+import com.vaadin.ui.UI;
+
+@GuiceUI(path = "concurrent")
+public class ConcurrentUI extends UI {
+
+    @Inject
+    private SlowUIScoped slowUIScoped;
+
+    @Inject
+    private DependentUIScoped dependentUIScoped;
+
+    public SlowUIScoped getSlowUIScoped() {
+        return slowUIScoped;
+    }
+
+    public DependentUIScoped getDependentUIScoped() {
+        return dependentUIScoped;
+    }
+
+    @Override
+    protected void init(VaadinRequest request) {
+    }
+}
@@ -0,0 +1,16 @@
+package com.vaadin.guice.concurrency;
+
+import com.google.inject.Inject;
+
+import com.vaadin.guice.annotation.UIScope;
+
+@UIScope
+public class DependentUIScoped {
+
+    @Inject
+    private SlowUIScoped slowUIScoped;
+
+    public SlowUIScoped getSlowUIScoped() {
+        return slowUIScoped;
+    }
+}
@@ -0,0 +1,23 @@
+package com.vaadin.guice.concurrency;
+
+import com.vaadin.guice.annotation.UIScope;
+
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeoutException;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * blocks it's construction until {@link #BARRIER} is tripped, so the test can prove that multiple
+ * UIs are under construction at the same time
+ */
+@UIScope
+public class SlowUIScoped {
+
+    public static volatile CyclicBarrier BARRIER = new CyclicBarrier(1);
+
+    public SlowUIScoped() throws InterruptedException, BrokenBarrierException, TimeoutException {
+        BARRIER.await(5, SECONDS);
+    }
+}
@@ -0,0 +1,15 @@
+package com.vaadin.guice.eager;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+@Singleton
+public class DependentSlowSingleton {
+
+    public static volatile boolean STARTED_AFTER_DEPENDENCY;
+
+    @Inject
+    public DependentSlowSingleton(SlowSingleton slowSingleton) {
+        STARTED_AFTER_DEPENDENCY = SlowSingleton.CREATED;
+    }
+}
@@ -0,0 +1,19 @@
+package com.vaadin.guice.eager;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Stage;
+
+public class EagerModule extends AbstractModule {
+
+    public static volatile Stage STAGE;
+
+    @Override
+    protected void configure() {
+        STAGE = currentStage();
+
+        bind(OverlappingSingleton.class);
+        bind(OtherOverlappingSingleton.class);
+        bind(DependentSlowSingleton.class);
+        bind(StageSingleton.class);
+    }
+}
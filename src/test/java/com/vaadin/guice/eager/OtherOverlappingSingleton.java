@@ -0,0 +1,16 @@
+package com.vaadin.guice.eager;
+
+import com.google.inject.Singleton;
+
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.TimeoutException;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+@Singleton
+public class OtherOverlappingSingleton {
+
+    public OtherOverlappingSingleton() throws InterruptedException, BrokenBarrierException, TimeoutException {
+        OverlappingSingleton.BARRIER.await(5, SECONDS);
+    }
+}
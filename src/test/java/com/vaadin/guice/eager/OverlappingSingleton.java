@@ -0,0 +1,23 @@
+package com.vaadin.guice.eager;
+
+import com.google.inject.Singleton;
+
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeoutException;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * blocks it's construction until {@link #BARRIER} is tripped, so the test can prove that
+ * independent singletons are created at the same time
+ */
+@Singleton
+public class OverlappingSingleton {
+
+    public static volatile CyclicBarrier BARRIER = new CyclicBarrier(1);
+
+    public OverlappingSingleton() throws InterruptedException, BrokenBarrierException, TimeoutException {
+        BARRIER.await(5, SECONDS);
+    }
+}
@@ -0,0 +1,14 @@
+package com.vaadin.guice.eager;
+
+import com.google.inject.Singleton;
+
+@Singleton
+public class SlowSingleton {
+
+    public static volatile boolean CREATED;
+
+    public SlowSingleton() throws InterruptedException {
+        Thread.sleep(100);
+        CREATED = true;
+    }
+}
@@ -0,0 +1,16 @@
+package com.vaadin.guice.eager;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.Stage;
+
+@Singleton
+public class StageSingleton {
+
+    public static volatile Stage STAGE;
+
+    @Inject
+    public StageSingleton(Stage stage) {
+        STAGE = stage;
+    }
+}
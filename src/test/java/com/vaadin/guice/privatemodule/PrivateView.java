@@ -0,0 +1,15 @@
+package com.vaadin.guice.privatemodule;
+
+import com.vaadin.guice.annotation.GuiceView;
+import com.vaadin.navigator.View;
+import com.vaadin.navigator.ViewChangeListener.ViewChangeEvent;
+
+@GuiceView("private")
+public class PrivateView implements View {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public void enter(ViewChangeEvent event) {
+    }
+}
@@ -0,0 +1,13 @@
+package com.vaadin.guice.privatemodule;
+
+import com.google.inject.PrivateModule;
+
+/**
+ * binds a scanned view inside a private module without exposing it
+ */
+public class PrivateViewModule extends PrivateModule {
+    @Override
+    protected void configure() {
+        bind(PrivateView.class);
+    }
+}
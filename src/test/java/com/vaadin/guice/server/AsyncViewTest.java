@@ -0,0 +1,269 @@
+package com.vaadin.guice.server;
+
+import com.google.inject.Key;
+import com.google.inject.Provider;
+
+import com.vaadin.guice.annotation.AsyncView;
+import com.vaadin.guice.annotation.GuiceView;
+import com.vaadin.guice.annotation.VaadinSessionScopeStorage.Storage;
+import com.vaadin.navigator.View;
+import com.vaadin.navigator.ViewChangeListener.ViewChangeEvent;
+import com.vaadin.navigator.ViewProvider;
+import com.vaadin.server.ErrorEvent;
+import com.vaadin.server.VaadinRequest;
+import com.vaadin.server.VaadinSession;
+import com.vaadin.ui.CssLayout;
+import com.vaadin.ui.CustomComponent;
+import com.vaadin.ui.Label;
+import com.vaadin.ui.UI;
+import com.vaadin.util.CurrentInstance;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class AsyncViewTest {
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final AccessQueueUI ui = new AccessQueueUI();
+    private final CssLayout viewContainer = new CssLayout();
+    private final GuiceNavigator navigator = new GuiceNavigator();
+    private final List<Throwable> errors = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        VaadinRequest request = mock(VaadinRequest.class);
+        when(request.getParameter("v-loc")).thenReturn("http://localhost/");
+
+        ui.getPage().init(request);
+        ui.setErrorHandler(event -> errors.add(event.getThrowable()));
+
+        navigator.init(ui, viewContainer);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+        CurrentInstance.clearAll();
+    }
+
+    @Test
+    public void built_view_should_replace_the_placeholder() throws Exception {
+        CountDownLatch build = new CountDownLatch(1);
+        TestView slowView = new TestView();
+
+        navigator.addProvider(new TestViewProvider("slow", () -> new ViewPlaceholder(new Label(), () -> {
+            await(build);
+            return slowView;
+        }, executor)));
+
+        navigator.navigateTo("slow/42");
+
+        assertTrue(navigator.getCurrentView() instanceof ViewPlaceholder);
+        assertSame(navigator.getCurrentView(), viewContainer.getComponent(0));
+        assertEquals(500, ui.getPollInterval());
+
+        build.countDown();
+        ui.runPendingAccess(1);
+
+        assertSame(slowView, navigator.getCurrentView());
+        assertSame(slowView, viewContainer.getComponent(0));
+        assertEquals("42", slowView.parameters);
+        assertEquals("slow/42", navigator.getState());
+        assertEquals(-1, ui.getPollInterval());
+    }
+
+    @Test
+    public void placeholders_that_have_been_left_should_not_be_replaced() throws Exception {
+        CountDownLatch build = new CountDownLatch(1);
+        TestView fastView = new TestView();
+
+        navigator.addProvider(new TestViewProvider("slow", () -> new ViewPlaceholder(new Label(), () -> {
+            await(build);
+            return new TestView();
+        }, executor)));
+
+        navigator.addProvider(new TestViewProvider("fast", () -> fastView));
+
+        navigator.navigateTo("slow");
+        navigator.navigateTo("fast");
+
+        build.countDown();
+        ui.runPendingAccess(1);
+
+        assertSame(fastView, navigator.getCurrentView());
+        assertEquals(-1, ui.getPollInterval());
+    }
+
+    @Test
+    public void failures_should_be_passed_to_the_error_handler() throws Exception {
+        RuntimeException failure = new IllegalStateException("backend down");
+
+        navigator.addProvider(new TestViewProvider("broken", () -> new ViewPlaceholder(new Label(), () -> {
+            throw failure;
+        }, executor)));
+
+        navigator.navigateTo("broken");
+
+        ui.runPendingAccess(1);
+
+        assertTrue(navigator.getCurrentView() instanceof ViewPlaceholder);
+        assertEquals(1, errors.size());
+        assertSame(failure, errors.get(0));
+        assertEquals(-1, ui.getPollInterval());
+    }
+
+    @Test
+    public void navigation_should_not_block_on_views_built_in_the_view_scope() throws Exception {
+        //CurrentInstance only keeps weak references, so the session needs to be held here
+        VaadinSession vaadinSession = mock(VaadinSession.class);
+        VaadinSession.setCurrent(vaadinSession);
+
+        UIScope uiScope = new UIScope();
+
+        uiScope.startScopeInit(AccessQueueUI.class);
+
+        try {
+            uiScope.flushInitialScopeSet(ui);
+        } finally {
+            uiScope.endScopeInit();
+        }
+
+        UI.setCurrent(ui);
+
+        ViewScope viewScope = new ViewScope(uiScope, 0, 0);
+        ScopedExecutor scopedExecutor = new ScopedExecutor(uiScope, new VaadinSessionScope(Storage.GLOBAL_MAP), 1);
+
+        CountDownLatch building = new CountDownLatch(1);
+        CountDownLatch build = new CountDownLatch(1);
+
+        Provider<SlowView> slowView = viewScope.scope(Key.get(SlowView.class), () -> {
+            building.countDown();
+            await(build);
+            return new SlowView();
+        });
+
+        Provider<TestView> fastView = viewScope.scope(Key.get(TestView.class), TestView::new);
+
+        navigator.addViewChangeListener(viewScope.getViewChangeListener());
+        navigator.addProvider(new TestViewProvider("slow", () -> new ViewPlaceholder(new Label(), slowView::get, scopedExecutor)));
+        navigator.addProvider(new TestViewProvider("fast", fastView::get));
+
+        try {
+            navigator.navigateTo("slow");
+
+            assertTrue(building.await(10, TimeUnit.SECONDS));
+
+            //the view-scope must not be locked while the slow view is built
+            CompletableFuture
+                    .runAsync(() -> {
+                        VaadinSession.setCurrent(vaadinSession);
+                        UI.setCurrent(ui);
+                        navigator.navigateTo("fast");
+                    })
+                    .get(5, TimeUnit.SECONDS);
+
+            assertSame(fastView.get(), navigator.getCurrentView());
+
+            build.countDown();
+            ui.runPendingAccess(1);
+
+            assertSame(fastView.get(), navigator.getCurrentView());
+        } finally {
+            build.countDown();
+            scopedExecutor.shutdown();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /*
+     * access-tasks are run once the test releases them, like they would be once the navigating
+     * request releases the session-lock
+     */
+    private static class AccessQueueUI extends UI {
+        private final Queue<Runnable> pendingAccess = new ConcurrentLinkedQueue<>();
+
+        @Override
+        public Future<Void> access(Runnable runnable) {
+            pendingAccess.add(runnable);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        void runPendingAccess(int expected) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+
+            while (pendingAccess.size() < expected && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+
+            assertEquals(expected, pendingAccess.size());
+
+            for (Runnable runnable; (runnable = pendingAccess.poll()) != null; ) {
+                runnable.run();
+            }
+        }
+
+        @Override
+        protected void init(VaadinRequest request) {
+        }
+    }
+
+    private static class TestView extends CustomComponent implements View {
+        private String parameters;
+
+        @Override
+        public void enter(ViewChangeEvent event) {
+            parameters = event.getParameters();
+        }
+    }
+
+    @GuiceView("slow")
+    @AsyncView
+    private static class SlowView extends CustomComponent implements View {
+    }
+
+    private static class TestViewProvider implements ViewProvider {
+        private final String viewName;
+        private final Supplier<View> view;
+
+        private TestViewProvider(String viewName, Supplier<View> view) {
+            this.viewName = viewName;
+            this.view = view;
+        }
+
+        @Override
+        public String getViewName(String viewAndParameters) {
+            return viewAndParameters.startsWith(viewName) ? viewName : null;
+        }
+
+        @Override
+        public View getView(String viewName) {
+            return view.get();
+        }
+    }
+}
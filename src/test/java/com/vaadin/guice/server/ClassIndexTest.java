@@ -0,0 +1,153 @@
+package com.vaadin.guice.server;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.Module;
+
+import com.vaadin.guice.testClasses.ViewA;
+import com.vaadin.navigator.View;
+import com.vaadin.navigator.ViewChangeListener;
+import com.vaadin.shared.Registration;
+import com.vaadin.ui.UI;
+
+import org.junit.Test;
+import org.reflections.Reflections;
+
+import java.io.File;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class ClassIndexTest {
+
+    private static final String[] packagesToScan = {"com.vaadin.guice.testClasses", "com.vaadin.guice.override"};
+
+    @Test
+    public void compiled_index_should_match_classpath_scanning() {
+        //the index is written by GuiceVaadinIndexProcessor while compiling the test-classes
+        ClassIndex compiled = ClassIndex.load(getClass().getClassLoader(), packagesToScan);
+
+        assertNotNull(compiled);
+
+        ClassIndex scanned = ClassIndex.scan(() -> ClassIndex.scanClasspath(packagesToScan));
+
+        assertFalse(compiled.nonAbstractSubtypes(View.class).isEmpty());
+        assertFalse(compiled.nonAbstractSubtypes(Module.class).isEmpty());
+
+        assertEquals(scanned.nonAbstractSubtypes(View.class), compiled.nonAbstractSubtypes(View.class));
+        assertEquals(scanned.nonAbstractSubtypes(UI.class), compiled.nonAbstractSubtypes(UI.class));
+        assertEquals(scanned.nonAbstractSubtypes(Module.class), compiled.nonAbstractSubtypes(Module.class));
+        assertEquals(scanned.nonAbstractSubtypes(ViewChangeListener.class), compiled.nonAbstractSubtypes(ViewChangeListener.class));
+    }
+
+    @Test
+    public void packages_in_classpath_roots_without_index_should_be_scanned() throws Exception {
+        //com.vaadin.guice.testClasses is in the indexed test-classes, com.vaadin.guice.unindexed in a root without index
+        Path unindexedRoot = compileWithoutIndex(
+                "com.vaadin.guice.unindexed.UnindexedView",
+                "package com.vaadin.guice.unindexed; public class UnindexedView extends com.vaadin.ui.CustomComponent implements com.vaadin.navigator.View {}"
+        );
+
+        String[] packagesToScan = {"com.vaadin.guice.testClasses", "com.vaadin.guice.unindexed"};
+
+        Thread thread = Thread.currentThread();
+        ClassLoader contextClassLoader = thread.getContextClassLoader();
+
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{unindexedRoot.toUri().toURL()}, getClass().getClassLoader())) {
+            //the scan looks up classes with the context class-loader
+            thread.setContextClassLoader(classLoader);
+
+            ClassIndex compiled = ClassIndex.load(classLoader, packagesToScan);
+
+            assertNotNull(compiled);
+
+            Set<String> viewNames = compiled
+                    .nonAbstractSubtypes(View.class)
+                    .stream()
+                    .map(Class::getName)
+                    .collect(toSet());
+
+            assertTrue(viewNames.contains("com.vaadin.guice.unindexed.UnindexedView"));
+            assertTrue(viewNames.contains(ViewA.class.getName()));
+        } finally {
+            thread.setContextClassLoader(contextClassLoader);
+        }
+    }
+
+    @Test
+    public void classes_of_guice_vaadin_should_not_be_found() {
+        String[] packagesToScan = {"com.vaadin.guice.testClasses", "com.vaadin.guice.server"};
+
+        ClassIndex compiled = ClassIndex.load(getClass().getClassLoader(), packagesToScan);
+        ClassIndex scanned = ClassIndex.scan(() -> ClassIndex.scanClasspath(packagesToScan));
+
+        assertNotNull(compiled);
+
+        assertFalse(compiled.nonAbstractSubtypes(View.class).contains(ViewPlaceholder.class));
+        assertFalse(scanned.nonAbstractSubtypes(View.class).contains(ViewPlaceholder.class));
+        assertEquals(scanned.nonAbstractSubtypes(View.class), compiled.nonAbstractSubtypes(View.class));
+    }
+
+    /*
+     * compiles a class without the annotation-processor into a new classpath-root
+     */
+    private static Path compileWithoutIndex(String className, String source) throws Exception {
+        Path root = Files.createTempDirectory("unindexed");
+        Path sourceFile = root.resolve(className.substring(className.lastIndexOf('.') + 1) + ".java");
+
+        Files.write(sourceFile, source.getBytes(UTF_8));
+
+        String classpath = Stream
+                .of(View.class, Registration.class)
+                .map(clazz -> {
+                    try {
+                        return Paths.get(clazz.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+                    } catch (URISyntaxException e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .collect(joining(File.pathSeparator));
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+
+        assertEquals(0, compiler.run(null, null, null, "-proc:none", "-cp", classpath, "-d", root.toString(), sourceFile.toString()));
+
+        Files.delete(sourceFile);
+
+        return root;
+    }
+
+    @Test
+    public void single_pass_scan_should_match_separate_scans() {
+        Reflections separate = new Reflections((Object[]) packagesToScan);
+
+        Reflections singlePass = ClassIndex.scanClasspath(new String[]{"com.vaadin.guice.testClasses", "com.vaadin.guice.override", "com.vaadin.guice.testClasses"});
+
+        assertEquals(separate.getSubTypesOf(View.class), singlePass.getSubTypesOf(View.class));
+        assertEquals(separate.getSubTypesOf(UI.class), singlePass.getSubTypesOf(UI.class));
+        assertEquals(separate.getSubTypesOf(Module.class), singlePass.getSubTypesOf(Module.class));
+    }
+
+    @Test
+    public void overlapping_packages_should_be_scanned_once() {
+        Set<String> packageRoots = ClassIndex.packageRoots(new String[]{"com.vaadin.guice.testClasses", " com.vaadin", "org.mycompany.ui", "org.mycompany.uiextensions", "org.mycompany.ui.sub"});
+
+        assertEquals(ImmutableSet.of("com.vaadin", "org.mycompany.ui", "org.mycompany.uiextensions"), packageRoots);
+    }
+}
@@ -0,0 +1,84 @@
+package com.vaadin.guice.server;
+
+import com.vaadin.guice.annotation.PackagesToScan;
+import com.vaadin.guice.concurrency.ConcurrentUI;
+import com.vaadin.guice.concurrency.SlowUIScoped;
+import com.vaadin.server.UICreateEvent;
+import com.vaadin.server.VaadinRequest;
+import com.vaadin.server.VaadinService;
+import com.vaadin.server.VaadinSession;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ConcurrentUICreationTest {
+
+    private final ExecutorService executorService = newFixedThreadPool(2);
+
+    @After
+    public void tearDown() {
+        executorService.shutdownNow();
+        SlowUIScoped.BARRIER = new CyclicBarrier(1);
+    }
+
+    @Test
+    public void uis_of_different_sessions_should_be_created_in_parallel() throws Exception {
+        GuiceVaadinServlet guiceVaadinServlet = new ConcurrencyServlet();
+
+        //both UI-constructions have to be in progress at the same time for the barrier to trip
+        SlowUIScoped.BARRIER = new CyclicBarrier(2);
+
+        Future<ConcurrentUI> future1 = executorService.submit(createUI(guiceVaadinServlet));
+        Future<ConcurrentUI> future2 = executorService.submit(createUI(guiceVaadinServlet));
+
+        ConcurrentUI ui1 = future1.get(10, SECONDS);
+        ConcurrentUI ui2 = future2.get(10, SECONDS);
+
+        assertNotSame(ui1, ui2);
+        assertSame(ui1.getSlowUIScoped(), ui1.getDependentUIScoped().getSlowUIScoped());
+        assertSame(ui2.getSlowUIScoped(), ui2.getDependentUIScoped().getSlowUIScoped());
+        assertNotSame(ui1.getSlowUIScoped(), ui2.getSlowUIScoped());
+        assertNotSame(ui1.getDependentUIScoped(), ui2.getDependentUIScoped());
+    }
+
+    private Callable<ConcurrentUI> createUI(GuiceVaadinServlet guiceVaadinServlet) {
+        return () -> {
+            //CurrentInstance only keeps a weak reference, so the session needs to be held here
+            VaadinSession vaadinSession = mock(VaadinSession.class);
+
+            VaadinSession.setCurrent(vaadinSession);
+
+            try {
+                VaadinRequest request = mock(VaadinRequest.class);
+
+                when(request.getService()).thenReturn(mock(VaadinService.class));
+
+                UICreateEvent event = new UICreateEvent(request, ConcurrentUI.class);
+
+                ConcurrentUI ui = (ConcurrentUI) guiceVaadinServlet.getGuiceUIProvider().createInstance(event);
+
+                assertSame(vaadinSession, VaadinSession.getCurrent());
+
+                return ui;
+            } finally {
+                VaadinSession.setCurrent(null);
+            }
+        };
+    }
+
+    @PackagesToScan("com.vaadin.guice.concurrency")
+    static class ConcurrencyServlet extends OverrideBindingsTest.TestServlet {
+    }
+}
@@ -0,0 +1,67 @@
+package com.vaadin.guice.server;
+
+import com.google.inject.Key;
+import com.google.inject.Provider;
+
+import com.vaadin.guice.annotation.VaadinSessionScopeStorage.Storage;
+import com.vaadin.server.VaadinSession;
+import com.vaadin.util.CurrentInstance;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+
+public class FlightRecorderEventsTest {
+
+    //CurrentInstance only keeps a weak reference, so the session needs to be held here
+    private final VaadinSession vaadinSession = mock(VaadinSession.class);
+
+    @After
+    public void tearDown() {
+        CurrentInstance.clearAll();
+    }
+
+    @Test
+    public void events_should_not_be_recorded_by_default() {
+        assertNull(FlightRecorderEvents.beginScopedProvision());
+    }
+
+    @Test
+    public void scoped_provisions_should_be_recorded_when_enabled() throws Exception {
+        VaadinSession.setCurrent(vaadinSession);
+
+        Provider<Object> scoped = new VaadinSessionScope(Storage.GLOBAL_MAP).scope(Key.get(Object.class), Object::new);
+
+        Path file = Files.createTempFile("scoped-provision", ".jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable("com.vaadin.guice.ScopedProvision");
+            recording.start();
+
+            scoped.get();
+            scoped.get();
+
+            recording.stop();
+            recording.dump(file);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+
+            assertEquals(1, events.size());
+            assertEquals("vaadinSession", events.get(0).getString("scope"));
+            assertEquals(Key.get(Object.class).toString(), events.get(0).getString("key"));
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
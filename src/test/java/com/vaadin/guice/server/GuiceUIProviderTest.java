@@ -0,0 +1,71 @@
+package com.vaadin.guice.server;
+
+import com.google.common.collect.ImmutableSet;
+
+import com.vaadin.guice.annotation.GuiceUI;
+import com.vaadin.server.UIClassSelectionEvent;
+import com.vaadin.server.VaadinRequest;
+import com.vaadin.server.VaadinService;
+import com.vaadin.ui.UI;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class GuiceUIProviderTest {
+
+    private final GuiceUIProvider uiProvider = newUIProvider();
+
+    @Test
+    public void root_ui_should_only_serve_the_root() {
+        assertSame(RootUI.class, uiClass(null));
+        assertSame(RootUI.class, uiClass(""));
+        assertSame(RootUI.class, uiClass("/"));
+        assertSame(RootUI.class, uiClass("/!view"));
+
+        //typos are left to vaadin, which responds with a 404
+        assertNull(uiClass("/shop"));
+        assertNull(uiClass("/admn/reports"));
+    }
+
+    @Test
+    public void ui_with_longest_path_should_serve_its_sub_paths() {
+        assertSame(AdminUI.class, uiClass("/admin"));
+        assertSame(AdminUI.class, uiClass("/ADMIN/"));
+        assertSame(AdminUI.class, uiClass("/admin/reports"));
+        assertSame(AdminUI.class, uiClass("/admin!reports"));
+        assertNull(uiClass("/administration"));
+    }
+
+    private Class<? extends UI> uiClass(String pathInfo) {
+        VaadinRequest request = mock(VaadinRequest.class);
+        when(request.getPathInfo()).thenReturn(pathInfo);
+        when(request.getService()).thenReturn(mock(VaadinService.class));
+
+        return uiProvider.getUIClass(new UIClassSelectionEvent(request));
+    }
+
+    private static GuiceUIProvider newUIProvider() {
+        GuiceVaadinServlet servlet = mock(GuiceVaadinServlet.class);
+        when(servlet.getUiClasses()).thenReturn(ImmutableSet.of(RootUI.class, AdminUI.class));
+
+        return new GuiceUIProvider(servlet);
+    }
+
+    @GuiceUI
+    private static class RootUI extends UI {
+        @Override
+        protected void init(VaadinRequest request) {
+        }
+    }
+
+    @GuiceUI(path = "admin")
+    private static class AdminUI extends UI {
+        @Override
+        protected void init(VaadinRequest request) {
+        }
+    }
+}
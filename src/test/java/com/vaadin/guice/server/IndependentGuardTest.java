@@ -0,0 +1,315 @@
+package com.vaadin.guice.server;
+
+import com.vaadin.guice.annotation.VaadinSessionScopeStorage.Storage;
+import com.vaadin.navigator.View;
+import com.vaadin.navigator.ViewChangeListener;
+import com.vaadin.server.VaadinRequest;
+import com.vaadin.server.VaadinSession;
+import com.vaadin.ui.CssLayout;
+import com.vaadin.ui.CustomComponent;
+import com.vaadin.ui.UI;
+import com.vaadin.util.CurrentInstance;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeFalse;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class IndependentGuardTest {
+
+    private static final long TIMEOUT = TimeUnit.SECONDS.toNanos(5);
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final TestUI ui = new TestUI();
+    private final GuiceNavigator navigator = new GuiceNavigator();
+    private final TargetView targetView = new TargetView();
+
+    //released at the end of every test, so no guard keeps blocking a thread
+    private final CountDownLatch blocked = new CountDownLatch(1);
+
+    @Before
+    public void setUp() {
+        VaadinRequest request = mock(VaadinRequest.class);
+        when(request.getParameter("v-loc")).thenReturn("http://localhost/");
+
+        ui.getPage().init(request);
+
+        navigator.init(ui, new CssLayout());
+        navigator.addView("target", targetView);
+    }
+
+    @After
+    public void tearDown() {
+        blocked.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void guards_should_be_evaluated_concurrently() {
+        CyclicBarrier allGuardsRunning = new CyclicBarrier(3);
+
+        for (int i = 0; i < 3; i++) {
+            navigator.addGuard(guard(() -> {
+                //only passes if all three guards run at the same time
+                allGuardsRunning.await(5, TimeUnit.SECONDS);
+                return true;
+            }), TIMEOUT, executor);
+        }
+
+        navigator.navigateTo("target");
+
+        assertSame(targetView, navigator.getCurrentView());
+    }
+
+    @Test
+    public void one_veto_should_veto_without_waiting_for_the_other_guards() {
+        navigator.addGuard(guard(() -> {
+            blocked.await();
+            return true;
+        }), TIMEOUT, executor);
+
+        navigator.addGuard(guard(() -> false), TIMEOUT, executor);
+
+        long start = System.nanoTime();
+
+        navigator.navigateTo("target");
+
+        assertNull(navigator.getCurrentView());
+        assertTrue(System.nanoTime() - start < TIMEOUT);
+    }
+
+    @Test
+    public void guards_that_do_not_decide_in_time_should_veto() {
+        navigator.addGuard(guard(() -> {
+            blocked.await();
+            return true;
+        }), TimeUnit.MILLISECONDS.toNanos(50), executor);
+
+        navigator.navigateTo("target");
+
+        assertNull(navigator.getCurrentView());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void failing_guards_should_fail_the_navigation() {
+        navigator.addGuard(guard(() -> {
+            throw new IllegalStateException("permission-service down");
+        }), TIMEOUT, executor);
+
+        navigator.navigateTo("target");
+    }
+
+    @Test
+    public void ordered_listeners_should_be_called_in_order_and_guards_after_the_change() {
+        List<String> calls = new CopyOnWriteArrayList<>();
+
+        navigator.addViewChangeListener(new RecordingListener("first", calls));
+        navigator.addViewChangeListener(new RecordingListener("second", calls));
+        navigator.addGuard(new RecordingListener("guard", calls), TIMEOUT, executor);
+
+        navigator.navigateTo("target");
+
+        assertSame(targetView, navigator.getCurrentView());
+
+        //the guard runs concurrently, so it may be called at any point before the change
+        List<String> beforeChange = new ArrayList<>(calls.subList(0, 3));
+
+        assertTrue(beforeChange.remove("guard"));
+        assertEquals(asList("first", "second"), beforeChange);
+        assertEquals(asList("after first", "after second", "after guard"), calls.subList(3, 6));
+    }
+
+    @Test
+    public void guards_should_not_wait_for_the_sessions_tasks() throws Exception {
+        //CurrentInstance only keeps weak references, so the session needs to be held here
+        VaadinSession vaadinSession = mock(VaadinSession.class);
+        VaadinSession.setCurrent(vaadinSession);
+        UI.setCurrent(ui);
+
+        ScopedExecutor scopedExecutor = new ScopedExecutor(new UIScope(), new VaadinSessionScope(Storage.GLOBAL_MAP), 1);
+
+        try {
+            CountDownLatch running = new CountDownLatch(1);
+
+            //occupies the only slot of the session
+            scopedExecutor.execute(() -> {
+                running.countDown();
+                await(blocked);
+            });
+
+            assertTrue(running.await(5, TimeUnit.SECONDS));
+
+            List<UI> uis = new CopyOnWriteArrayList<>();
+
+            navigator.addGuard(guard(() -> uis.add(UI.getCurrent())), TimeUnit.MILLISECONDS.toNanos(500), scopedExecutor.forGuards());
+
+            navigator.navigateTo("target");
+
+            assertSame(targetView, navigator.getCurrentView());
+            assertEquals(singletonList(ui), uis);
+        } finally {
+            blocked.countDown();
+            scopedExecutor.shutdown();
+            CurrentInstance.clearAll();
+        }
+    }
+
+    @Test
+    public void guard_timeouts_should_count_from_the_approval_of_the_ordered_listeners() {
+        navigator.addViewChangeListener(guard(() -> {
+            Thread.sleep(300);
+            return true;
+        }));
+
+        //decides after its timeout has passed since the navigation started, but not since the ordered listener approved
+        navigator.addGuard(guard(() -> {
+            Thread.sleep(500);
+            return true;
+        }), TimeUnit.MILLISECONDS.toNanos(400), executor);
+
+        navigator.navigateTo("target");
+
+        assertSame(targetView, navigator.getCurrentView());
+    }
+
+    @Test
+    public void guards_should_not_wait_for_background_tasks() throws Exception {
+        ScopedExecutor scopedExecutor = new ScopedExecutor(new UIScope(), new VaadinSessionScope(Storage.GLOBAL_MAP), 1);
+
+        assumeFalse(scopedExecutor.usesVirtualThreads());
+
+        try {
+            int threads = 2 * Runtime.getRuntime().availableProcessors();
+
+            CountDownLatch running = new CountDownLatch(threads);
+
+            //tasks without a session are not limited per session, these occupy every thread of the pool
+            for (int i = 0; i < threads; i++) {
+                scopedExecutor.execute(() -> {
+                    running.countDown();
+                    await(blocked);
+                });
+            }
+
+            assertTrue(running.await(5, TimeUnit.SECONDS));
+
+            navigator.addGuard(guard(() -> true), TimeUnit.MILLISECONDS.toNanos(500), scopedExecutor.forGuards());
+
+            navigator.navigateTo("target");
+
+            assertSame(targetView, navigator.getCurrentView());
+        } finally {
+            blocked.countDown();
+            scopedExecutor.shutdown();
+        }
+    }
+
+    @Test
+    public void guards_should_run_on_the_navigating_thread_if_all_guard_threads_are_busy() throws Exception {
+        ScopedExecutor scopedExecutor = new ScopedExecutor(new UIScope(), new VaadinSessionScope(Storage.GLOBAL_MAP), 1);
+
+        assumeFalse(scopedExecutor.usesVirtualThreads());
+
+        try {
+            int threads = 2 * Runtime.getRuntime().availableProcessors();
+
+            CountDownLatch running = new CountDownLatch(threads);
+
+            for (int i = 0; i < threads; i++) {
+                scopedExecutor.forGuards().execute(() -> {
+                    running.countDown();
+                    await(blocked);
+                });
+            }
+
+            assertTrue(running.await(5, TimeUnit.SECONDS));
+
+            List<Thread> guardThreads = new CopyOnWriteArrayList<>();
+
+            navigator.addGuard(guard(() -> guardThreads.add(Thread.currentThread())), TimeUnit.MILLISECONDS.toNanos(500), scopedExecutor.forGuards());
+
+            navigator.navigateTo("target");
+
+            assertSame(targetView, navigator.getCurrentView());
+            assertEquals(singletonList(Thread.currentThread()), guardThreads);
+        } finally {
+            blocked.countDown();
+            scopedExecutor.shutdown();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ViewChangeListener guard(Decision decision) {
+        return new ViewChangeListener() {
+            @Override
+            public boolean beforeViewChange(ViewChangeEvent event) {
+                try {
+                    return decision.decide();
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        };
+    }
+
+    private interface Decision {
+        boolean decide() throws Exception;
+    }
+
+    private static class RecordingListener implements ViewChangeListener {
+        private final String name;
+        private final List<String> calls;
+
+        private RecordingListener(String name, List<String> calls) {
+            this.name = name;
+            this.calls = calls;
+        }
+
+        @Override
+        public boolean beforeViewChange(ViewChangeEvent event) {
+            calls.add(name);
+            return true;
+        }
+
+        @Override
+        public void afterViewChange(ViewChangeEvent event) {
+            calls.add("after " + name);
+        }
+    }
+
+    private static class TargetView extends CustomComponent implements View {
+    }
+
+    private static class TestUI extends UI {
+        @Override
+        protected void init(VaadinRequest request) {
+        }
+    }
+}
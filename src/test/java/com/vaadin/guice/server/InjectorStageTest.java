@@ -0,0 +1,117 @@
+package com.vaadin.guice.server;
+
+import com.google.inject.Stage;
+
+import com.vaadin.guice.annotation.InjectorStage;
+import com.vaadin.guice.annotation.PackagesToScan;
+import com.vaadin.guice.eager.DependentSlowSingleton;
+import com.vaadin.guice.eager.EagerModule;
+import com.vaadin.guice.eager.OverlappingSingleton;
+import com.vaadin.guice.eager.SlowSingleton;
+import com.vaadin.guice.eager.StageSingleton;
+import com.vaadin.guice.singletons.CountingSingleton;
+import com.vaadin.guice.singletons.DependentSingleton;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CyclicBarrier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class InjectorStageTest {
+
+    @Before
+    public void setUp() {
+        CountingSingleton.INSTANCES.set(0);
+        DependentSingleton.INSTANCES.set(0);
+        SlowSingleton.CREATED = false;
+        DependentSlowSingleton.STARTED_AFTER_DEPENDENCY = false;
+        StageSingleton.STAGE = null;
+        EagerModule.STAGE = null;
+    }
+
+    @After
+    public void tearDown() {
+        OverlappingSingleton.BARRIER = new CyclicBarrier(1);
+    }
+
+    @Test
+    public void singletons_should_be_created_at_startup_in_production() {
+        GuiceVaadinServlet guiceVaadinServlet = new ProductionServlet();
+
+        assertEquals(1, CountingSingleton.INSTANCES.get());
+        assertEquals(1, DependentSingleton.INSTANCES.get());
+
+        DependentSingleton dependentSingleton = guiceVaadinServlet.getInjector().getInstance(DependentSingleton.class);
+
+        assertSame(guiceVaadinServlet.getInjector().getInstance(CountingSingleton.class), dependentSingleton.getCountingSingleton());
+        assertEquals(1, CountingSingleton.INSTANCES.get());
+        assertEquals(1, DependentSingleton.INSTANCES.get());
+    }
+
+    @Test
+    public void independent_singletons_should_be_created_in_parallel() {
+        //both singleton-constructions have to be in progress at the same time for the barrier to trip
+        OverlappingSingleton.BARRIER = new CyclicBarrier(2);
+
+        new EagerServlet();
+    }
+
+    @Test
+    public void dependent_singletons_should_be_created_after_their_dependencies() {
+        new EagerServlet();
+
+        assertTrue(DependentSlowSingleton.STARTED_AFTER_DEPENDENCY);
+    }
+
+    @Test
+    public void modules_and_injector_should_see_the_configured_stage() {
+        GuiceVaadinServlet guiceVaadinServlet = new EagerServlet();
+
+        assertEquals(Stage.PRODUCTION, EagerModule.STAGE);
+        assertEquals(Stage.PRODUCTION, StageSingleton.STAGE);
+        assertEquals(Stage.PRODUCTION, guiceVaadinServlet.getInjector().getInstance(Stage.class));
+        assertEquals(Stage.PRODUCTION, guiceVaadinServlet.getInjectorStage());
+    }
+
+    @Test
+    public void singletons_should_be_created_lazily_in_development() {
+        GuiceVaadinServlet guiceVaadinServlet = new DevelopmentServlet();
+
+        assertEquals(0, CountingSingleton.INSTANCES.get());
+        assertEquals(0, DependentSingleton.INSTANCES.get());
+
+        guiceVaadinServlet.getInjector().getInstance(DependentSingleton.class);
+
+        assertEquals(1, CountingSingleton.INSTANCES.get());
+        assertEquals(1, DependentSingleton.INSTANCES.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tool_stage_should_be_rejected() {
+        new ToolServlet();
+    }
+
+    @PackagesToScan("com.vaadin.guice.singletons")
+    @InjectorStage(Stage.PRODUCTION)
+    static class ProductionServlet extends OverrideBindingsTest.TestServlet {
+    }
+
+    @PackagesToScan("com.vaadin.guice.eager")
+    @InjectorStage(Stage.PRODUCTION)
+    static class EagerServlet extends OverrideBindingsTest.TestServlet {
+    }
+
+    @PackagesToScan("com.vaadin.guice.singletons")
+    static class DevelopmentServlet extends OverrideBindingsTest.TestServlet {
+    }
+
+    @PackagesToScan("com.vaadin.guice.singletons")
+    @InjectorStage(Stage.TOOL)
+    static class ToolServlet extends OverrideBindingsTest.TestServlet {
+    }
+}
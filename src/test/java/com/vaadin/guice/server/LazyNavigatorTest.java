@@ -0,0 +1,155 @@
+package com.vaadin.guice.server;
+
+import com.vaadin.navigator.View;
+import com.vaadin.server.VaadinRequest;
+import com.vaadin.server.VaadinService;
+import com.vaadin.server.VaadinServletService;
+import com.vaadin.ui.CssLayout;
+import com.vaadin.ui.CustomComponent;
+import com.vaadin.ui.UI;
+import com.vaadin.util.CurrentInstance;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class LazyNavigatorTest {
+
+    private final TestUI ui = new TestUI();
+    private final GuiceNavigator navigator = new GuiceNavigator();
+    private final TestView defaultView = new TestView();
+    private final TestView targetView = new TestView();
+
+    private int inits;
+
+    @After
+    public void tearDown() {
+        CurrentInstance.clearAll();
+    }
+
+    @Test
+    public void uis_opened_without_fragment_should_not_init_the_navigator() {
+        open("http://localhost/");
+
+        assertEquals(0, inits);
+        assertNull(navigator.getCurrentView());
+    }
+
+    @Test
+    public void uis_opened_with_fragment_should_navigate_right_away() {
+        open("http://localhost/#!target");
+
+        assertEquals(1, inits);
+        assertSame(targetView, navigator.getCurrentView());
+    }
+
+    @Test
+    public void first_navigation_should_init_the_navigator() {
+        open("http://localhost/");
+
+        navigator.navigateTo("target");
+
+        assertEquals(1, inits);
+        assertSame(targetView, navigator.getCurrentView());
+        assertEquals("target", navigator.getState());
+    }
+
+    @Test
+    public void first_fragment_change_should_init_the_navigator() {
+        open("http://localhost/");
+
+        ui.getPage().setUriFragment("!target");
+
+        assertEquals(1, inits);
+        assertSame(targetView, navigator.getCurrentView());
+
+        ui.getPage().setUriFragment("!");
+
+        assertEquals(1, inits);
+        assertSame(defaultView, navigator.getCurrentView());
+    }
+
+    @Test
+    public void deserialized_navigators_should_init_on_first_navigation() throws Exception {
+        open("http://localhost/");
+
+        TestUI deserializedUI = serializeAndDeserialize(ui);
+        GuiceNavigator deserializedNavigator = (GuiceNavigator) deserializedUI.getNavigator();
+
+        assertNull(deserializedNavigator.getState());
+
+        //the init is not serialized, it is taken from the servlet of the current request
+        GuiceVaadinServlet servlet = mock(GuiceVaadinServlet.class);
+        UISetup uiSetup = mock(UISetup.class);
+
+        when(servlet.getUiSetup()).thenReturn(uiSetup);
+        when(uiSetup.navigatorInit(deserializedNavigator, deserializedUI)).thenReturn(() -> {
+            inits++;
+            deserializedNavigator.init(deserializedUI, new CssLayout());
+            deserializedNavigator.addView("target", targetView);
+        });
+
+        VaadinServletService service = mock(VaadinServletService.class);
+        when(service.getServlet()).thenReturn(servlet);
+
+        VaadinService.setCurrent(service);
+
+        deserializedNavigator.navigateTo("target");
+
+        assertEquals(1, inits);
+        assertSame(targetView, deserializedNavigator.getCurrentView());
+        assertEquals("target", deserializedNavigator.getState());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T serializeAndDeserialize(T object) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return (T) in.readObject();
+        }
+    }
+
+    /*
+     * what UISetup and UI#doInit do for a UI with a lazy navigator
+     */
+    private void open(String location) {
+        VaadinRequest request = mock(VaadinRequest.class);
+        when(request.getParameter("v-loc")).thenReturn(location);
+
+        navigator.initOnFirstNavigation(ui, () -> {
+            inits++;
+            navigator.init(ui, new CssLayout());
+            navigator.addView("", defaultView);
+            navigator.addView("target", targetView);
+        });
+
+        ui.setNavigator(navigator);
+        ui.getPage().init(request);
+
+        ui.getNavigator().navigateTo(ui.getNavigator().getState());
+    }
+
+    private static class TestView extends CustomComponent implements View {
+    }
+
+    private static class TestUI extends UI {
+        @Override
+        protected void init(VaadinRequest request) {
+        }
+    }
+}
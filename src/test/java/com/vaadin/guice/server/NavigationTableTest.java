@@ -0,0 +1,61 @@
+package com.vaadin.guice.server;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import com.vaadin.guice.annotation.ForUI;
+import com.vaadin.guice.annotation.GuiceView;
+import com.vaadin.guice.concurrency.ConcurrentUI;
+import com.vaadin.guice.testClasses.Target2;
+import com.vaadin.guice.testClasses.ViewA;
+import com.vaadin.navigator.View;
+import com.vaadin.navigator.ViewChangeListener;
+import com.vaadin.ui.UI;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class NavigationTableTest {
+
+    private final NavigationTable navigationTable = new NavigationTable(
+            ImmutableSet.of(Target2.class, ConcurrentUI.class),
+            ImmutableSet.of(ViewA.class, Target2View.class)
+    );
+
+    @Test
+    public void for_ui_should_restrict_navigation() {
+        assertTrue(navigationTable.isNavigable(Target2.class, ViewA.class));
+        assertTrue(navigationTable.isNavigable(ConcurrentUI.class, ViewA.class));
+        assertTrue(navigationTable.isNavigable(Target2.class, Target2View.class));
+        assertFalse(navigationTable.isNavigable(ConcurrentUI.class, Target2View.class));
+    }
+
+    @Test
+    public void unknown_uis_and_views_should_not_be_navigable() {
+        assertFalse(navigationTable.isNavigable(UI.class, ViewA.class));
+        assertFalse(navigationTable.isNavigable(Target2.class, View.class));
+    }
+
+    @Test
+    public void navigable_views_should_be_precomputed_per_ui() {
+        assertEquals(ImmutableSet.of(ViewA.class, Target2View.class), navigationTable.getNavigableViews(Target2.class));
+        assertEquals(ImmutableSet.of(ViewA.class), navigationTable.getNavigableViews(ConcurrentUI.class));
+        assertEquals(ImmutableMap.of("viewa", ViewA.class), navigationTable.getNavigableViewsByName(ConcurrentUI.class));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void for_ui_with_unknown_ui_should_fail() {
+        new NavigationTable(ImmutableSet.of(ConcurrentUI.class), ImmutableSet.of(Target2View.class));
+    }
+
+    @GuiceView("target2view")
+    @ForUI(Target2.class)
+    public static class Target2View implements View {
+        @Override
+        public void enter(ViewChangeListener.ViewChangeEvent event) {
+        }
+    }
+}
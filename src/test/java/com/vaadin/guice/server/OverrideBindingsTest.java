@@ -1,6 +1,8 @@
 package com.vaadin.guice.server;
 
+import com.google.inject.Binding;
 import com.google.inject.ConfigurationException;
+import com.google.inject.Key;
 
 import com.vaadin.guice.annotation.PackagesToScan;
 import com.vaadin.guice.testClasses.ASecondImplementation;
@@ -8,11 +10,14 @@ import com.vaadin.guice.testClasses.AnImplementation;
 import com.vaadin.guice.testClasses.AnInterface;
 import com.vaadin.guice.testClasses.AnotherInterface;
 import com.vaadin.guice.testClasses.AnotherInterfaceImplementation;
+import com.vaadin.guice.testClasses.Target2;
+import com.vaadin.guice.testClasses.ViewA;
 
 import org.junit.Test;
 import org.mockito.Mockito;
 
 import java.util.Enumeration;
+import java.util.Map;
 
 import javax.servlet.ServletConfig;
 import javax.servlet.ServletContext;
@@ -22,6 +27,7 @@ import static org.hamcrest.core.IsInstanceOf.instanceOf;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.when;
 
 public class OverrideBindingsTest {
@@ -73,6 +79,27 @@ public class OverrideBindingsTest {
         GuiceVaadinServlet.getInjector().getInstance(AnotherInterface.class);
     }
 
+    @Test
+    public void scanned_classes_should_be_bound_explicitly() {
+        GuiceVaadinServlet guiceVaadinServlet = new Servlet1();
+
+        Map<Key<?>, Binding<?>> bindings = guiceVaadinServlet.getInjector().getBindings();
+
+        assertTrue(bindings.containsKey(Key.get(ViewA.class)));
+        assertTrue(bindings.containsKey(Key.get(Target2.class)));
+    }
+
+    @Test
+    public void classes_bound_in_private_modules_should_not_be_bound_again() {
+        try {
+            new PrivateModuleServlet();
+            fail();
+        } catch (ConfigurationException e) {
+            //not a duplicate binding, but guice's hint at the missing expose
+            assertTrue(e.getMessage(), e.getMessage().contains("did you forget to expose"));
+        }
+    }
+
     static class TestServlet extends GuiceVaadinServlet {
         TestServlet() {
             try {
@@ -105,6 +132,10 @@ public class OverrideBindingsTest {
 
     }
 
+    @PackagesToScan("com.vaadin.guice.privatemodule")
+    static class PrivateModuleServlet extends TestServlet {
+    }
+
     @PackagesToScan({"com.vaadin.guice.testClasses", "com.vaadin.guice.override", "com.vaadin.guice.nonoverride"})
     static class Servlet1 extends TestServlet {
     }
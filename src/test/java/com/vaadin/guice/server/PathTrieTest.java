@@ -0,0 +1,61 @@
+package com.vaadin.guice.server;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class PathTrieTest {
+
+    private final PathTrie<String> pathTrie = build("", "/admin", "/admin/reports", "/shop");
+
+    private static PathTrie<String> build(String... keys) {
+        final PathTrie.Builder<String> builder = PathTrie.builder();
+
+        for (String key : keys) {
+            builder.putIfAbsent(key, key);
+        }
+
+        return builder.build();
+    }
+
+    private String longestMatch(String path) {
+        final int indexOfBang = path.indexOf('!');
+
+        return pathTrie.longestMatch(path, indexOfBang > -1 ? indexOfBang : path.length());
+    }
+
+    @Test
+    public void longest_prefix_should_win() {
+        assertEquals("/admin/reports", longestMatch("/admin/reports/2017"));
+        assertEquals("/admin", longestMatch("/admin/users"));
+        assertEquals("/admin", longestMatch("/ADMIN/"));
+        assertEquals("", longestMatch("/"));
+        assertEquals("", longestMatch("/administration"));
+    }
+
+    @Test
+    public void matching_should_end_at_a_bang() {
+        assertEquals("/shop", longestMatch("/Shop!#cart/items"));
+        assertEquals("/admin", longestMatch("/admin/!reports"));
+    }
+
+    @Test
+    public void without_root_unmatched_paths_should_be_null() {
+        final PathTrie<String> withoutRoot = build("/admin");
+
+        assertNull(withoutRoot.longestMatch("/shop", 5));
+        assertNull(withoutRoot.longestMatch("/adminx", 7));
+        assertNull(withoutRoot.exactMatch("/admin/"));
+        assertEquals("/admin", withoutRoot.exactMatch("/Admin"));
+    }
+
+    @Test
+    public void existing_keys_should_be_kept() {
+        final PathTrie.Builder<String> builder = PathTrie.builder();
+
+        assertNull(builder.putIfAbsent("/Admin", "first"));
+        assertEquals("first", builder.putIfAbsent("/admin", "second"));
+        assertEquals("first", builder.build().exactMatch("/admin"));
+    }
+}
@@ -0,0 +1,139 @@
+package com.vaadin.guice.server;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Inject;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.matcher.Matchers;
+
+import com.vaadin.guice.annotation.PackagesToScan;
+import com.vaadin.guice.annotation.ProvisionProfiling;
+import com.vaadin.server.VaadinRequest;
+import com.vaadin.ui.UI;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ProvisionProfilerTest {
+
+    @Test
+    public void dependencies_of_uis_should_be_recorded() {
+        ProvisionProfiler provisionProfiler = new ProvisionProfiler(Long.MAX_VALUE);
+
+        Injector injector = injector(provisionProfiler);
+
+        injector.getInstance(SlowDependency.class);
+
+        assertTrue("provisions outside of UI-creation are not to be recorded", provisionProfiler.getTotals().isEmpty());
+
+        injector.getInstance(ProfiledUI.class);
+        injector.getInstance(ProfiledUI.class);
+
+        Map<Key<?>, ProvisionProfiler.Totals> totals = provisionProfiler.getTotals();
+
+        assertEquals(2, totals.get(Key.get(ProfiledUI.class)).getCount());
+        assertEquals(2, totals.get(Key.get(SlowDependency.class)).getCount());
+        assertEquals(2, totals.get(Key.get(Repository.class)).getCount());
+
+        ProvisionProfiler.Totals uiTotals = totals.get(Key.get(ProfiledUI.class));
+
+        assertTrue(uiTotals.getTotal().compareTo(totals.get(Key.get(Repository.class)).getTotal()) >= 0);
+        assertTrue(uiTotals.getSelf().compareTo(uiTotals.getTotal()) <= 0);
+    }
+
+    @Test
+    public void slowest_chain_should_be_logged_above_threshold() {
+        List<LogRecord> records = new ArrayList<>();
+
+        Handler handler = new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                records.add(record);
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        Logger logger = Logger.getLogger(ProvisionProfiler.class.getName());
+
+        logger.addHandler(handler);
+
+        try {
+            injector(new ProvisionProfiler(0)).getInstance(ProfiledUI.class);
+        } finally {
+            logger.removeHandler(handler);
+        }
+
+        assertEquals(1, records.size());
+
+        String chain = (String) records.get(0).getParameters()[2];
+
+        assertTrue(chain, chain.startsWith(SlowDependency.class.getName()));
+        assertTrue(chain, chain.contains("-> " + Repository.class.getName()));
+        assertFalse(chain, chain.contains(FastDependency.class.getName()));
+    }
+
+    @Test
+    public void profiler_should_only_be_installed_if_configured() {
+        assertNotNull(new ProfiledServlet().getProvisionProfiler());
+        assertNull(new OverrideBindingsTest.Servlet2().getProvisionProfiler());
+    }
+
+    private static Injector injector(ProvisionProfiler provisionProfiler) {
+        return Guice.createInjector(new AbstractModule() {
+            @Override
+            protected void configure() {
+                bindListener(Matchers.any(), provisionProfiler);
+            }
+        });
+    }
+
+    @PackagesToScan({"com.vaadin.guice.testClasses"})
+    @ProvisionProfiling(thresholdMillis = 500)
+    static class ProfiledServlet extends OverrideBindingsTest.TestServlet {
+    }
+
+    static class Repository {
+        Repository() throws InterruptedException {
+            Thread.sleep(20);
+        }
+    }
+
+    static class SlowDependency {
+        @Inject
+        SlowDependency(Repository repository) {
+        }
+    }
+
+    static class FastDependency {
+    }
+
+    static class ProfiledUI extends UI {
+        @Inject
+        ProfiledUI(FastDependency fastDependency, SlowDependency slowDependency) {
+        }
+
+        @Override
+        protected void init(VaadinRequest request) {
+        }
+    }
+}
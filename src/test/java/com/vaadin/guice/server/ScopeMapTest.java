@@ -0,0 +1,106 @@
+package com.vaadin.guice.server;
+
+import com.google.inject.Key;
+import com.google.inject.Provider;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ScopeMapTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final ScopeMap scopeMap = new ScopeMap(new ScopeMap.Statistics("test"));
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void concurrent_misses_should_provision_one_instance() throws Exception {
+        CountDownLatch provisioning = new CountDownLatch(1);
+        CountDownLatch provision = new CountDownLatch(1);
+        AtomicInteger provisions = new AtomicInteger();
+
+        Provider<Object> provider = () -> {
+            provisions.incrementAndGet();
+            provisioning.countDown();
+            await(provision);
+            return new Object();
+        };
+
+        Future<Object> first = executor.submit(() -> scopeMap.get(Key.get(Object.class), provider));
+
+        assertTrue(provisioning.await(5, TimeUnit.SECONDS));
+
+        Future<Object> second = executor.submit(() -> scopeMap.get(Key.get(Object.class), provider));
+
+        //the second lookup is waiting for the first one by now
+        Thread.sleep(100);
+
+        provision.countDown();
+
+        assertSame(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, provisions.get());
+    }
+
+    @Test
+    public void failed_provisions_should_be_retried_by_waiting_lookups() throws Exception {
+        CountDownLatch provisioning = new CountDownLatch(1);
+        CountDownLatch provision = new CountDownLatch(1);
+        AtomicInteger provisions = new AtomicInteger();
+
+        Provider<Object> provider = () -> {
+            if (provisions.incrementAndGet() == 1) {
+                provisioning.countDown();
+                await(provision);
+                throw new IllegalStateException("first provision fails");
+            }
+
+            return new Object();
+        };
+
+        Future<Object> first = executor.submit(() -> scopeMap.get(Key.get(Object.class), provider));
+
+        assertTrue(provisioning.await(5, TimeUnit.SECONDS));
+
+        Future<Object> second = executor.submit(() -> scopeMap.get(Key.get(Object.class), provider));
+
+        Thread.sleep(100);
+
+        provision.countDown();
+
+        Object instance = second.get(5, TimeUnit.SECONDS);
+
+        assertSame(instance, scopeMap.get(Key.get(Object.class), provider));
+        assertEquals(2, provisions.get());
+
+        try {
+            first.get(5, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.vaadin.guice.server;
+
+import com.google.inject.Key;
+import com.google.inject.Provider;
+
+import com.vaadin.guice.annotation.VaadinSessionScopeStorage.Storage;
+import com.vaadin.server.ClientConnector;
+import com.vaadin.server.VaadinRequest;
+import com.vaadin.server.VaadinSession;
+import com.vaadin.ui.UI;
+import com.vaadin.util.CurrentInstance;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+
+public class ScopeReleaseTest {
+
+    //CurrentInstance only keeps a weak reference, so the session needs to be held here
+    private final VaadinSession vaadinSession = mock(VaadinSession.class);
+
+    @After
+    public void tearDown() {
+        CurrentInstance.clearAll();
+    }
+
+    @Test
+    public void ui_scoped_instances_should_be_released_on_detach() {
+        VaadinSession.setCurrent(vaadinSession);
+
+        UIScope uiScope = new UIScope();
+
+        Provider<Object> scoped = uiScope.scope(Key.get(Object.class), Object::new);
+
+        TestUI ui = new TestUI();
+
+        uiScope.startScopeInit(TestUI.class);
+
+        Object instance;
+
+        try {
+            instance = scoped.get();
+            uiScope.flushInitialScopeSet(ui);
+        } finally {
+            uiScope.endScopeInit();
+        }
+
+        UI.setCurrent(ui);
+
+        assertSame(instance, scoped.get());
+
+        //UI#detach needs a fully attached UI, so the listeners are called directly
+        for (Object listener : ui.getListeners(ClientConnector.DetachEvent.class)) {
+            ((ClientConnector.DetachListener) listener).detach(new ClientConnector.DetachEvent(ui));
+        }
+
+        assertEquals(1, uiScope.getReclaimedEntries());
+    }
+
+    @Test
+    public void session_scoped_instances_should_be_released_on_session_destroy() {
+        VaadinSession.setCurrent(vaadinSession);
+
+        VaadinSessionScope vaadinSessionScope = new VaadinSessionScope(Storage.GLOBAL_MAP);
+
+        Provider<Object> scoped = vaadinSessionScope.scope(Key.get(Object.class), Object::new);
+
+        Object instance = scoped.get();
+
+        assertSame(instance, scoped.get());
+
+        vaadinSessionScope.release(vaadinSession);
+
+        assertEquals(1, vaadinSessionScope.getReclaimedEntries());
+        assertNotSame(instance, scoped.get());
+    }
+
+    private static class TestUI extends UI {
+        @Override
+        protected void init(VaadinRequest request) {
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.vaadin.guice.server;
+
+import com.google.inject.Key;
+import com.google.inject.Provider;
+
+import com.vaadin.guice.annotation.VaadinSessionScopeStorage.Storage;
+import com.vaadin.server.VaadinRequest;
+import com.vaadin.server.VaadinService;
+import com.vaadin.server.VaadinSession;
+import com.vaadin.ui.UI;
+import com.vaadin.util.CurrentInstance;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class ScopedExecutorTest {
+
+    //CurrentInstance only keeps weak references, so session and UI need to be held here
+    private final VaadinSession vaadinSession = mock(VaadinSession.class);
+    private final TestUI ui = new TestUI();
+    private final UIScope uiScope = new UIScope();
+    private final VaadinSessionScope vaadinSessionScope = new VaadinSessionScope(Storage.GLOBAL_MAP);
+
+    private ScopedExecutor scopedExecutor;
+
+    @Before
+    public void setUp() {
+        VaadinSession.setCurrent(vaadinSession);
+
+        uiScope.startScopeInit(TestUI.class);
+
+        try {
+            uiScope.flushInitialScopeSet(ui);
+        } finally {
+            uiScope.endScopeInit();
+        }
+
+        UI.setCurrent(ui);
+    }
+
+    @After
+    public void tearDown() {
+        if (scopedExecutor != null) {
+            scopedExecutor.shutdown();
+        }
+
+        CurrentInstance.clearAll();
+    }
+
+    @Test
+    public void scopes_should_be_propagated() throws Exception {
+        scopedExecutor = new ScopedExecutor(uiScope, vaadinSessionScope, 1);
+
+        Provider<Object> uiScoped = uiScope.scope(Key.get(Object.class), Object::new);
+
+        Object instance = uiScoped.get();
+
+        Object[] fromWorker = CompletableFuture
+                .supplyAsync(() -> new Object[]{uiScoped.get(), UI.getCurrent(), VaadinSession.getCurrent()}, scopedExecutor)
+                .get(10, TimeUnit.SECONDS);
+
+        assertSame(instance, fromWorker[0]);
+        assertSame(ui, fromWorker[1]);
+        assertSame(vaadinSession, fromWorker[2]);
+    }
+
+    @Test
+    public void session_scope_in_attributes_should_be_propagated_without_the_lock() throws Exception {
+        VaadinSessionScope attributeScope = new VaadinSessionScope(Storage.SESSION_ATTRIBUTE);
+
+        //the lock is held by this thread, so workers accessing the attributes would fail or block
+        LockedSession lockedSession = new LockedSession();
+        VaadinSession.setCurrent(lockedSession);
+
+        scopedExecutor = new ScopedExecutor(uiScope, attributeScope, 1);
+
+        Provider<Object> sessionScoped = attributeScope.scope(Key.get(Object.class), Object::new);
+
+        Object instance = sessionScoped.get();
+
+        Object fromWorker = CompletableFuture
+                .supplyAsync(sessionScoped::get, scopedExecutor)
+                .get(10, TimeUnit.SECONDS);
+
+        assertSame(instance, fromWorker);
+    }
+
+    @Test
+    public void tasks_of_a_session_should_be_limited() throws Exception {
+        scopedExecutor = new ScopedExecutor(uiScope, vaadinSessionScope, 2);
+
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(8);
+
+        for (int i = 0; i < 8; i++) {
+            scopedExecutor.execute(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertTrue(maxRunning.get() <= 2);
+    }
+
+    @Test
+    public void worker_threads_should_not_keep_the_scope() throws Exception {
+        scopedExecutor = new ScopedExecutor(uiScope, vaadinSessionScope, 1);
+
+        CompletableFuture.runAsync(() -> { }, scopedExecutor).get(10, TimeUnit.SECONDS);
+
+        CurrentInstance.clearAll();
+
+        List<Object> currents = new ArrayList<>();
+
+        CompletableFuture.runAsync(() -> {
+            currents.add(UI.getCurrent());
+            currents.add(uiScope.captureScopeMap());
+        }, scopedExecutor).get(10, TimeUnit.SECONDS);
+
+        assertEquals(2, currents.size());
+        assertNull(currents.get(0));
+        assertNull(currents.get(1));
+    }
+
+    @Test
+    public void virtual_threads_should_be_used_if_available() {
+        scopedExecutor = new ScopedExecutor(uiScope, vaadinSessionScope, 1);
+
+        boolean available;
+
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            available = true;
+        } catch (NoSuchMethodException e) {
+            available = false;
+        }
+
+        assertEquals(available, scopedExecutor.usesVirtualThreads());
+    }
+
+    //session-attributes can only be accessed with the session's lock held
+    private static final class LockedSession extends VaadinSession {
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private LockedSession() {
+            super(mock(VaadinService.class));
+            lock.lock();
+        }
+
+        @Override
+        public Lock getLockInstance() {
+            return lock;
+        }
+    }
+
+    private static class TestUI extends UI {
+        @Override
+        protected void init(VaadinRequest request) {
+        }
+    }
+}
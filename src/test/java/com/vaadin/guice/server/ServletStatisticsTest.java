@@ -0,0 +1,121 @@
+package com.vaadin.guice.server;
+
+import com.google.inject.Key;
+import com.google.inject.Provider;
+
+import com.vaadin.guice.annotation.PackagesToScan;
+import com.vaadin.guice.annotation.VaadinSessionScopeStorage.Storage;
+import com.vaadin.server.SessionDestroyEvent;
+import com.vaadin.server.VaadinService;
+import com.vaadin.server.VaadinSession;
+import com.vaadin.util.CurrentInstance;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.TabularData;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class ServletStatisticsTest {
+
+    //CurrentInstance only keeps a weak reference, so the session needs to be held here
+    private final VaadinSession vaadinSession = mock(VaadinSession.class);
+
+    @After
+    public void tearDown() {
+        CurrentInstance.clearAll();
+    }
+
+    @Test
+    public void mbean_should_be_registered_while_in_service() throws Exception {
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+
+        ObjectName objectName = new ObjectName(
+                "com.vaadin.guice:type=GuiceVaadinServlet,name=" + ObjectName.quote(StatisticsServlet.class.getName())
+        );
+
+        StatisticsServlet servlet = new StatisticsServlet();
+
+        assertTrue(mBeanServer.isRegistered(objectName));
+        assertEquals(0L, mBeanServer.getAttribute(objectName, "LiveSessions"));
+
+        Set<?> uiClasses = ((TabularData) mBeanServer.getAttribute(objectName, "UICreations")).keySet();
+
+        assertEquals(2, uiClasses.size());
+
+        servlet.destroy();
+
+        assertFalse(mBeanServer.isRegistered(objectName));
+    }
+
+    @Test
+    public void servlets_with_the_same_name_should_both_be_registered() throws Exception {
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+
+        String name = "com.vaadin.guice:type=GuiceVaadinServlet,name=" + ObjectName.quote(StatisticsServlet.class.getName());
+
+        StatisticsServlet first = new StatisticsServlet();
+        StatisticsServlet second = new StatisticsServlet();
+
+        try {
+            assertTrue(mBeanServer.isRegistered(new ObjectName(name)));
+            assertTrue(mBeanServer.isRegistered(new ObjectName(name + ",instance=2")));
+        } finally {
+            first.destroy();
+            second.destroy();
+        }
+    }
+
+    @Test
+    public void sessions_that_were_not_initialized_should_not_be_counted() throws Exception {
+        StatisticsServlet servlet = new StatisticsServlet();
+
+        try {
+            VaadinService vaadinService = mock(VaadinService.class);
+
+            //like a session that was deserialized after a restart
+            servlet.sessionDestroy(new SessionDestroyEvent(vaadinService, vaadinSession));
+
+            assertEquals(0L, servlet.getLiveSessions());
+        } finally {
+            servlet.destroy();
+        }
+    }
+
+    @Test
+    public void scope_lookups_should_be_counted() {
+        VaadinSession.setCurrent(vaadinSession);
+
+        VaadinSessionScope vaadinSessionScope = new VaadinSessionScope(Storage.GLOBAL_MAP);
+
+        Provider<Object> scoped = vaadinSessionScope.scope(Key.get(Object.class), Object::new);
+
+        scoped.get();
+        scoped.get();
+        scoped.get();
+
+        assertEquals(1, vaadinSessionScope.getStatistics().getMisses());
+        assertEquals(2, vaadinSessionScope.getStatistics().getHits());
+
+        Map<Key<?>, Integer> keys = new HashMap<>();
+
+        vaadinSessionScope.forEachScopeMap(scopeMap -> scopeMap.forEachKey(key -> keys.merge(key, 1, Integer::sum)));
+
+        assertEquals(1, (int) keys.get(Key.get(Object.class)));
+    }
+
+    @PackagesToScan({"com.vaadin.guice.testClasses"})
+    static class StatisticsServlet extends OverrideBindingsTest.TestServlet {
+    }
+}
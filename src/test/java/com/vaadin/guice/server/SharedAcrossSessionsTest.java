@@ -0,0 +1,161 @@
+package com.vaadin.guice.server;
+
+import com.google.common.collect.Iterables;
+
+import com.vaadin.guice.annotation.PackagesToScan;
+import com.vaadin.guice.sessions.PerSessionRequestHandler;
+import com.vaadin.guice.sessions.SharedRequestHandler;
+import com.vaadin.guice.sessions.SingletonBootstrapListener;
+import com.vaadin.guice.sessions.SingletonRequestHandler;
+import com.vaadin.server.BootstrapFragmentResponse;
+import com.vaadin.server.BootstrapListener;
+import com.vaadin.server.DefaultUIProvider;
+import com.vaadin.server.RequestHandler;
+import com.vaadin.server.ServiceException;
+import com.vaadin.server.SessionInitEvent;
+import com.vaadin.server.VaadinRequest;
+import com.vaadin.server.VaadinService;
+import com.vaadin.server.VaadinSession;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SharedAcrossSessionsTest {
+
+    @Before
+    public void setUp() {
+        SharedRequestHandler.instances.set(0);
+        PerSessionRequestHandler.instances.set(0);
+        SingletonBootstrapListener.instances.set(0);
+        SingletonBootstrapListener.fragmentsModified.set(0);
+    }
+
+    @Test
+    public void stateless_handlers_should_be_created_once() throws ServiceException {
+        SessionsServlet servlet = new SessionsServlet();
+
+        VaadinSession session1 = initSession(servlet);
+        VaadinSession session2 = initSession(servlet);
+
+        assertEquals(1, SharedRequestHandler.instances.get());
+        assertEquals(1, SingletonBootstrapListener.instances.get());
+        assertEquals(2, PerSessionRequestHandler.instances.get());
+
+        assertEquals(2, session1.getRequestHandlers().size());
+        assertEquals(1, Iterables.size(Iterables.filter(session1.getRequestHandlers(), PerSessionRequestHandler.class)));
+
+        assertEquals(1, Iterables.size(Iterables.filter(servlet.service().getRequestHandlers(), SharedRequestHandler.class)));
+
+        session2.modifyBootstrapResponse(mock(BootstrapFragmentResponse.class));
+
+        assertEquals(1, SingletonBootstrapListener.fragmentsModified.get());
+    }
+
+    @Test
+    public void singleton_request_handlers_should_stay_with_the_sessions() throws ServiceException {
+        SessionsServlet servlet = new SessionsServlet();
+
+        VaadinSession session = initSession(servlet);
+
+        assertEquals(1, Iterables.size(Iterables.filter(session.getRequestHandlers(), SingletonRequestHandler.class)));
+        assertTrue(Iterables.isEmpty(Iterables.filter(servlet.service().getRequestHandlers(), SingletonRequestHandler.class)));
+    }
+
+    @Test
+    public void deserialized_shared_bootstrap_listeners_should_use_the_servlets_listeners() throws Exception {
+        SessionsServlet servlet = new SessionsServlet();
+
+        BootstrapListener deserialized = deserialize(serialize(servlet.getSharedBootstrapListener()));
+
+        VaadinSession session = mock(VaadinSession.class);
+        when(session.getService()).thenReturn(servlet.service());
+
+        BootstrapFragmentResponse response = mock(BootstrapFragmentResponse.class);
+        when(response.getSession()).thenReturn(session);
+
+        deserialized.modifyBootstrapFragment(response);
+
+        assertEquals(1, SingletonBootstrapListener.fragmentsModified.get());
+    }
+
+    private static byte[] serialize(Object object) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return (T) in.readObject();
+        }
+    }
+
+    @Test
+    public void sessions_should_only_have_the_guice_ui_provider() throws ServiceException {
+        SessionsServlet servlet = new SessionsServlet();
+
+        VaadinSession session = new LockedSession();
+
+        session.addUIProvider(new DefaultUIProvider());
+        session.addUIProvider(new DefaultUIProvider());
+
+        servlet.sessionInit(new SessionInitEvent(mock(VaadinService.class), session, mock(VaadinRequest.class)));
+
+        assertEquals(1, session.getUIProviders().size());
+        assertSame(servlet.getGuiceUIProvider(), session.getUIProviders().get(0));
+
+        for (RequestHandler requestHandler : session.getRequestHandlers()) {
+            assertFalse(requestHandler instanceof SharedRequestHandler);
+        }
+    }
+
+    private static VaadinSession initSession(GuiceVaadinServlet servlet) throws ServiceException {
+        VaadinSession session = new LockedSession();
+
+        servlet.sessionInit(new SessionInitEvent(mock(VaadinService.class), session, mock(VaadinRequest.class)));
+
+        return session;
+    }
+
+    //session-attributes can only be accessed with the session's lock held
+    private static final class LockedSession extends VaadinSession {
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private LockedSession() {
+            super(mock(VaadinService.class));
+            lock.lock();
+        }
+
+        @Override
+        public Lock getLockInstance() {
+            return lock;
+        }
+    }
+
+    @PackagesToScan({"com.vaadin.guice.testClasses", "com.vaadin.guice.sessions"})
+    static class SessionsServlet extends OverrideBindingsTest.TestServlet {
+        VaadinService service() {
+            return getService();
+        }
+    }
+}
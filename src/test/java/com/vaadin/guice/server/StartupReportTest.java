@@ -0,0 +1,29 @@
+package com.vaadin.guice.server;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class StartupReportTest {
+
+    @Test
+    public void startup_phases_and_counts_should_be_reported() {
+        GuiceVaadinServlet guiceVaadinServlet = new OverrideBindingsTest.Servlet1();
+
+        StartupReport startupReport = guiceVaadinServlet.getStartupReport();
+
+        for (StartupReport.Phase phase : StartupReport.Phase.values()) {
+            assertFalse(startupReport.getDuration(phase).isNegative());
+        }
+
+        assertTrue(startupReport.getTotalDuration().compareTo(startupReport.getDuration(StartupReport.Phase.INJECTOR_CREATION)) >= 0);
+        assertTrue(startupReport.isCompiledIndexUsed());
+        assertEquals(2, startupReport.getModules());
+        assertEquals(2, startupReport.getUIs());
+        assertEquals(5, startupReport.getViews());
+        assertEquals(9, startupReport.getClasses());
+        assertTrue(startupReport.getBindings() > 0);
+    }
+}
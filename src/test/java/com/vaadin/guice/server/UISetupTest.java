@@ -0,0 +1,52 @@
+package com.vaadin.guice.server;
+
+import com.google.common.collect.ImmutableSet;
+
+import com.vaadin.guice.annotation.GuiceUI;
+import com.vaadin.server.VaadinRequest;
+import com.vaadin.ui.Label;
+import com.vaadin.ui.UI;
+
+import org.junit.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class UISetupTest {
+
+    @Test(expected = IllegalStateException.class)
+    public void content_without_ui_scope_should_fail_at_startup() {
+        GuiceVaadinServlet guiceVaadinServlet = mock(GuiceVaadinServlet.class);
+
+        when(guiceVaadinServlet.getUiClasses()).thenReturn(ImmutableSet.of(UnscopedContentUI.class));
+
+        new UISetup(guiceVaadinServlet);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void view_container_without_navigation_support_should_fail_at_startup() {
+        GuiceVaadinServlet guiceVaadinServlet = mock(GuiceVaadinServlet.class);
+
+        when(guiceVaadinServlet.getUiClasses()).thenReturn(ImmutableSet.of(LabelViewContainerUI.class));
+
+        new UISetup(guiceVaadinServlet);
+    }
+
+    @GuiceUI(path = "unscoped-content", content = Label.class)
+    public static class UnscopedContentUI extends UI {
+        @Override
+        protected void init(VaadinRequest request) {
+        }
+    }
+
+    @com.vaadin.guice.annotation.UIScope
+    public static class UIScopedLabel extends Label {
+    }
+
+    @GuiceUI(path = "label-view-container", viewContainer = UIScopedLabel.class)
+    public static class LabelViewContainerUI extends UI {
+        @Override
+        protected void init(VaadinRequest request) {
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package com.vaadin.guice.server;
+
+import com.vaadin.server.VaadinRequest;
+import com.vaadin.ui.UI;
+import com.vaadin.ui.UIDetachedException;
+import com.vaadin.util.CurrentInstance;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class UIUpdateDispatcherTest {
+
+    private static final long FRAME_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> new Thread(runnable, "scheduler"));
+    private final ExecutorService accessExecutor = Executors.newCachedThreadPool();
+
+    //released at the end of every test, so no UI keeps blocking a thread
+    private final CountDownLatch blocked = new CountDownLatch(1);
+
+    @After
+    public void tearDown() {
+        blocked.countDown();
+        scheduler.shutdownNow();
+        accessExecutor.shutdownNow();
+        CurrentInstance.clearAll();
+    }
+
+    @Test
+    public void updates_should_be_applied_in_one_access_per_frame() throws Exception {
+        CountingUI ui = new CountingUI();
+
+        UIUpdateDispatcher dispatcher = new UIUpdateDispatcher(() -> scheduler, () -> accessExecutor, FRAME_NANOS, ui);
+
+        Map<Integer, Integer> tiles = new ConcurrentHashMap<>();
+
+        for (int i = 0; i < 1000; i++) {
+            final int tile = i % 10;
+            final int value = i;
+
+            dispatcher.update(tile, () -> tiles.put(tile, value));
+        }
+
+        CountDownLatch applied = new CountDownLatch(1);
+
+        dispatcher.update(applied::countDown);
+
+        assertTrue(applied.await(10, TimeUnit.SECONDS));
+
+        assertEquals(1, ui.accesses.get());
+        assertNotEquals("scheduler", ui.accessingThread.getName());
+        assertEquals(10, tiles.size());
+
+        for (int tile = 0; tile < 10; tile++) {
+            assertEquals(990 + tile, (int) tiles.get(tile));
+        }
+    }
+
+    @Test
+    public void blocked_uis_should_not_hold_up_other_uis() throws Exception {
+        CountingUI blockedUI = new CountingUI();
+        blockedUI.blocker = blocked;
+
+        UIUpdateDispatcher blockedDispatcher = new UIUpdateDispatcher(() -> scheduler, () -> accessExecutor, FRAME_NANOS, blockedUI);
+        UIUpdateDispatcher dispatcher = new UIUpdateDispatcher(() -> scheduler, () -> accessExecutor, FRAME_NANOS, new CountingUI());
+
+        blockedDispatcher.update(() -> { });
+
+        //the blocked UI's frame is in it's access by now
+        Thread.sleep(TimeUnit.NANOSECONDS.toMillis(FRAME_NANOS) * 2);
+
+        CountDownLatch applied = new CountDownLatch(1);
+
+        dispatcher.update(applied::countDown);
+
+        assertTrue(applied.await(10, TimeUnit.SECONDS));
+        assertEquals(1, blockedUI.accesses.get());
+    }
+
+    @Test
+    public void latest_update_of_a_key_should_keep_the_first_position() throws Exception {
+        UIUpdateDispatcher dispatcher = new UIUpdateDispatcher(() -> scheduler, () -> accessExecutor, FRAME_NANOS, new CountingUI());
+
+        List<String> applied = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+
+        dispatcher.update("a", () -> applied.add("a1"));
+        dispatcher.update("b", () -> applied.add("b1"));
+        dispatcher.update("a", () -> applied.add("a2"));
+        dispatcher.update("done", done::countDown);
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(asList("a2", "b1"), applied);
+    }
+
+    @Test
+    public void updates_of_detached_uis_should_be_dropped() throws Exception {
+        CountingUI ui = new CountingUI();
+        ui.detached = true;
+
+        UIUpdateDispatcher dispatcher = new UIUpdateDispatcher(() -> scheduler, () -> accessExecutor, FRAME_NANOS, ui);
+
+        AtomicInteger applied = new AtomicInteger();
+
+        dispatcher.update(applied::incrementAndGet);
+
+        Thread.sleep(200);
+
+        ui.detached = false;
+
+        CountDownLatch done = new CountDownLatch(1);
+
+        dispatcher.update(done::countDown);
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(0, applied.get());
+    }
+
+    @Test
+    public void dispatchers_created_with_their_ui_should_get_it_when_the_ui_is_created() throws Exception {
+        UIScope uiScope = new UIScope();
+        UIUpdateDispatchers uiUpdateDispatchers = new UIUpdateDispatchers(uiScope, FRAME_NANOS, () -> scheduler, () -> accessExecutor);
+
+        CountingUI ui = new CountingUI();
+
+        CountDownLatch done = new CountDownLatch(1);
+
+        uiScope.startScopeInit(CountingUI.class);
+        uiUpdateDispatchers.startUICreation();
+
+        try {
+            uiUpdateDispatchers.newDispatcher().update(done::countDown);
+
+            //nothing is scheduled until the UI is known
+            assertEquals(0, scheduler.getQueue().size());
+        } finally {
+            uiUpdateDispatchers.endUICreation(ui);
+            uiScope.endScopeInit();
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(1, ui.accesses.get());
+    }
+
+    @Test
+    public void dispatchers_of_uis_that_failed_to_be_created_should_drop_their_updates() {
+        UIScope uiScope = new UIScope();
+        UIUpdateDispatchers uiUpdateDispatchers = new UIUpdateDispatchers(uiScope, FRAME_NANOS, () -> scheduler, () -> accessExecutor);
+
+        UIUpdateDispatcher dispatcher;
+
+        uiScope.startScopeInit(CountingUI.class);
+        uiUpdateDispatchers.startUICreation();
+
+        try {
+            dispatcher = uiUpdateDispatchers.newDispatcher();
+
+            dispatcher.update(() -> { });
+        } finally {
+            //the UI's constructor failed, so it is never set up
+            uiUpdateDispatchers.endUICreation(null);
+            uiScope.endScopeInit();
+        }
+
+        dispatcher.update(() -> { });
+
+        assertEquals(0, scheduler.getQueue().size());
+        assertEquals(0, scheduler.getTaskCount());
+    }
+
+    @Test
+    public void threads_should_not_be_created_before_the_first_frame() throws Exception {
+        AtomicInteger schedulers = new AtomicInteger();
+        AtomicInteger accessExecutors = new AtomicInteger();
+
+        UIUpdateDispatchers uiUpdateDispatchers = new UIUpdateDispatchers(
+                new UIScope(),
+                FRAME_NANOS,
+                () -> {
+                    schedulers.incrementAndGet();
+                    return scheduler;
+                },
+                () -> {
+                    accessExecutors.incrementAndGet();
+                    return accessExecutor;
+                }
+        );
+
+        CountingUI ui = new CountingUI();
+        UI.setCurrent(ui);
+
+        UIUpdateDispatcher dispatcher = uiUpdateDispatchers.newDispatcher();
+
+        assertEquals(0, schedulers.get());
+        assertEquals(0, accessExecutors.get());
+
+        CountDownLatch done = new CountDownLatch(1);
+
+        dispatcher.update(done::countDown);
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(1, schedulers.get());
+        assertEquals(1, accessExecutors.get());
+    }
+
+    private static class CountingUI extends UI {
+        private final AtomicInteger accesses = new AtomicInteger();
+        private volatile boolean detached;
+        private volatile Thread accessingThread;
+        private volatile CountDownLatch blocker;
+
+        /*
+         * like UI#access with the session's lock available, the runnable is run and pushed on the
+         * calling thread
+         */
+        @Override
+        public Future<Void> access(Runnable runnable) {
+            if (detached) {
+                throw new UIDetachedException();
+            }
+
+            accesses.incrementAndGet();
+            accessingThread = Thread.currentThread();
+
+            if (blocker != null) {
+                try {
+                    blocker.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            runnable.run();
+
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        protected void init(VaadinRequest request) {
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.vaadin.guice.server;
+
+import com.google.common.collect.ImmutableMap;
+
+import com.vaadin.guice.testClasses.View0;
+import com.vaadin.guice.testClasses.ViewA;
+import com.vaadin.guice.testClasses.ViewAA;
+import com.vaadin.guice.testClasses.ViewB;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class ViewRoutesTest {
+
+    private final ViewRoutes routes = ViewRoutes.of(
+            ImmutableMap.of(
+                    "", View0.class,
+                    "ViewA", ViewA.class,
+                    "viewa/sub", ViewAA.class,
+                    "viewb", ViewB.class
+            )
+    );
+
+    @Test
+    public void matching_should_be_case_insensitive() {
+        assertSame(ViewA.class, routes.match("VIEWA").viewClass);
+        assertSame(ViewB.class, routes.match("ViewB/param").viewClass);
+        assertEquals("viewa", routes.match("viewA").viewName);
+    }
+
+    @Test
+    public void view_names_should_end_at_a_slash() {
+        assertNull(routes.match("viewab"));
+        assertNull(routes.match("view"));
+        assertSame(View0.class, routes.match("").viewClass);
+        assertSame(View0.class, routes.match("/param").viewClass);
+    }
+
+    @Test
+    public void view_names_should_be_the_first_segment_only() {
+        //the rest is parameters, even if a view is registered under a longer name
+        assertSame(ViewA.class, routes.match("viewa/sub").viewClass);
+        assertSame(ViewA.class, routes.match("viewa/sub/param").viewClass);
+        assertSame(ViewA.class, routes.match("viewa/").viewClass);
+    }
+
+    @Test
+    public void exact_match_should_not_accept_parameters() {
+        assertSame(ViewAA.class, routes.exactMatch("VIEWA/SUB").viewClass);
+        assertNull(routes.exactMatch("viewa/"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void duplicate_view_names_should_be_rejected() {
+        ViewRoutes.of(ImmutableMap.of("viewa", ViewA.class, "VIEWA", ViewAA.class));
+    }
+}
@@ -1,26 +1,243 @@
 package com.vaadin.guice.server;
 
-/*
-public class ViewScopeTest extends ScopeTestBase {
+import com.google.inject.Key;
+import com.google.inject.Provider;
+
+import com.vaadin.guice.annotation.CachedView;
+import com.vaadin.guice.annotation.RetainedViews;
+import com.vaadin.guice.testClasses.ViewA;
+import com.vaadin.guice.testClasses.ViewAA;
+import com.vaadin.guice.testClasses.ViewB;
+import com.vaadin.navigator.Navigator;
+import com.vaadin.navigator.View;
+import com.vaadin.navigator.ViewChangeListener;
+import com.vaadin.navigator.ViewChangeListener.ViewChangeEvent;
+import com.vaadin.server.VaadinRequest;
+import com.vaadin.server.VaadinService;
+import com.vaadin.server.VaadinServletService;
+import com.vaadin.server.VaadinSession;
+import com.vaadin.ui.UI;
+import com.vaadin.util.CurrentInstance;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ViewScopeTest {
+
+    //CurrentInstance only keeps weak references, so session and UI need to be held here
+    private final VaadinSession vaadinSession = mock(VaadinSession.class);
+    private final TestUI ui = new TestUI();
+    private final UIScope uiScope = new UIScope();
 
     @Before
-    public void setup(){
+    public void setUp() {
+        VaadinSession.setCurrent(vaadinSession);
+
+        uiScope.startScopeInit(TestUI.class);
+
+        try {
+            uiScope.flushInitialScopeSet(ui);
+        } finally {
+            uiScope.endScopeInit();
+        }
+
+        UI.setCurrent(ui);
+    }
+
+    @After
+    public void tearDown() {
+        CurrentInstance.clearAll();
+    }
+
+    @Test
+    public void left_views_should_be_released() {
+        ViewScope viewScope = new ViewScope(uiScope, 0, 0);
+
+        Provider<ViewA> viewA = viewScope.scope(Key.get(ViewA.class), ViewA::new);
+        Provider<ViewB> viewB = viewScope.scope(Key.get(ViewB.class), ViewB::new);
+
+        ViewA firstViewA = navigate(viewScope, viewA);
+
+        assertSame(firstViewA, viewA.get());
+
+        navigate(viewScope, viewB);
+
+        assertEquals(1, viewScope.getReclaimedEntries());
+        assertNotSame(firstViewA, navigate(viewScope, viewA));
     }
 
     @Test
-    public void view_scopes_and_ui_scopes_should_not_overlap() throws NoSuchFieldException, IllegalAccessException {
+    public void all_views_should_be_retained_by_default() {
+        ViewScope viewScope = new ViewScope(uiScope, RetainedViews.ALL, 0);
+
+        Provider<ViewA> viewA = viewScope.scope(Key.get(ViewA.class), ViewA::new);
+        Provider<ViewB> viewB = viewScope.scope(Key.get(ViewB.class), ViewB::new);
+
+        ViewA firstViewA = navigate(viewScope, viewA);
+        ViewB firstViewB = navigate(viewScope, viewB);
+
+        assertSame(firstViewA, navigate(viewScope, viewA));
+        assertSame(firstViewB, navigate(viewScope, viewB));
+        assertEquals(0, viewScope.getReclaimedEntries());
+    }
+
+    @Test
+    public void deserialized_listeners_should_release_views_of_the_current_servlet() throws Exception {
+        ViewScope viewScope = new ViewScope(uiScope, 0, 0);
+
+        Provider<ViewA> viewA = viewScope.scope(Key.get(ViewA.class), ViewA::new);
+        Provider<ViewB> viewB = viewScope.scope(Key.get(ViewB.class), ViewB::new);
+
+        navigate(viewScope, viewA);
+
+        ViewChangeListener deserializedListener = serializeAndDeserialize(viewScope.getViewChangeListener());
+
+        //the scope is not serialized, it is taken from the servlet of the current request
+        GuiceVaadinServlet servlet = mock(GuiceVaadinServlet.class);
+        when(servlet.getViewScoper()).thenReturn(viewScope);
+
+        VaadinServletService service = mock(VaadinServletService.class);
+        when(service.getServlet()).thenReturn(servlet);
+
+        VaadinService.setCurrent(service);
+
+        deserializedListener.afterViewChange(new ViewChangeEvent(mock(Navigator.class), null, viewB.get(), "", ""));
+
+        assertEquals(1, viewScope.getReclaimedEntries());
+    }
+
+    @Test
+    public void most_recently_left_views_should_be_retained() {
+        ViewScope viewScope = new ViewScope(uiScope, 1, 0);
+
+        Provider<ViewA> viewA = viewScope.scope(Key.get(ViewA.class), ViewA::new);
+        Provider<ViewAA> viewAA = viewScope.scope(Key.get(ViewAA.class), ViewAA::new);
+        Provider<ViewB> viewB = viewScope.scope(Key.get(ViewB.class), ViewB::new);
+
+        ViewA firstViewA = navigate(viewScope, viewA);
+        ViewAA firstViewAA = navigate(viewScope, viewAA);
 
+        assertSame(firstViewA, navigate(viewScope, viewA));
+        assertEquals(0, viewScope.getReclaimedEntries());
+
+        navigate(viewScope, viewB);
+
+        assertEquals(1, viewScope.getReclaimedEntries());
+        assertNotSame(firstViewAA, viewAA.get());
+        assertSame(firstViewA, viewA.get());
+    }
+
+    @Test
+    public void cached_views_should_be_kept_until_expired() {
+        long[] now = {0};
+
+        ViewScope viewScope = new ViewScope(uiScope, 0, 10, () -> now[0]);
+
+        Provider<ViewA> viewA = viewScope.scope(Key.get(ViewA.class), ViewA::new);
+        Provider<ExpiringView> expiringView = viewScope.scope(Key.get(ExpiringView.class), ExpiringView::new);
+        Provider<PermanentView> permanentView = viewScope.scope(Key.get(PermanentView.class), PermanentView::new);
+
+        ExpiringView firstExpiringView = navigate(viewScope, expiringView);
+        PermanentView firstPermanentView = navigate(viewScope, permanentView);
+        navigate(viewScope, viewA);
+
+        assertEquals(0, viewScope.getReclaimedEntries());
+
+        now[0] = TimeUnit.SECONDS.toNanos(30);
+
+        assertSame(firstExpiringView, navigate(viewScope, expiringView));
+
+        //only the uncached viewA was released
+        assertEquals(1, viewScope.getReclaimedEntries());
+
+        navigate(viewScope, viewA);
+        now[0] += TimeUnit.SECONDS.toNanos(61);
+
+        assertNotSame(firstExpiringView, expiringView.get());
+        assertSame(firstPermanentView, permanentView.get());
+        assertEquals(2, viewScope.getReclaimedEntries());
+    }
+
+    @Test
+    public void least_recently_used_cached_views_should_be_released_beyond_max_cached_views() {
+        ViewScope viewScope = new ViewScope(uiScope, 0, 1);
+
+        Provider<ViewA> viewA = viewScope.scope(Key.get(ViewA.class), ViewA::new);
+        Provider<PermanentView> permanentView = viewScope.scope(Key.get(PermanentView.class), PermanentView::new);
+        Provider<OtherPermanentView> otherPermanentView = viewScope.scope(Key.get(OtherPermanentView.class), OtherPermanentView::new);
+
+        PermanentView firstPermanentView = navigate(viewScope, permanentView);
+        OtherPermanentView firstOtherPermanentView = navigate(viewScope, otherPermanentView);
+
+        assertEquals(0, viewScope.getReclaimedEntries());
+
+        navigate(viewScope, viewA);
+
+        assertEquals(1, viewScope.getReclaimedEntries());
+        assertSame(firstOtherPermanentView, otherPermanentView.get());
+        assertNotSame(firstPermanentView, permanentView.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negative_max_idle_should_be_rejected() {
+        new ViewScope(uiScope, 0, 0).scope(Key.get(NegativeView.class), NegativeView::new);
+    }
+
+    private <T extends View> T navigate(ViewScope viewScope, Provider<T> viewProvider) {
+        T view = viewProvider.get();
+
+        viewScope
+                .getViewChangeListener()
+                .afterViewChange(new ViewChangeEvent(mock(Navigator.class), null, view, "", ""));
+
+        return view;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T serializeAndDeserialize(T object) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return (T) in.readObject();
+        }
+    }
+
+    @CachedView(maxIdle = 1)
+    private static class ExpiringView extends ViewB {
+    }
+
+    @CachedView(maxIdle = 0)
+    private static class PermanentView extends ViewB {
+    }
 
-        final ViewA viewA = GuiceVaadinServlet.assemble(ViewA.class);
+    @CachedView(maxIdle = 0)
+    private static class OtherPermanentView extends ViewB {
     }
 
-    private GuiceVaadinServlet getGuiceVaadinServlet(GuiceVaadinServletServlet servlet) throws NoSuchFieldException, IllegalAccessException {
-        final Field field = servlet.getClass().getSuperclass().getDeclaredField("GuiceVaadinServlet");
-        field.setAccessible(true);
-        return (GuiceVaadinServlet) field.get(servlet);
+    @CachedView(maxIdle = -1)
+    private static class NegativeView extends ViewB {
     }
 
-    @PackagesToScan(modules = {}, basePackages = "com.vaadin.guice.testClasses")
-    private static class VaadinServletWithDynamicLoadedModule extends GuiceVaadinServletServlet {
+    private static class TestUI extends UI {
+        @Override
+        protected void init(VaadinRequest request) {
+        }
     }
-}*/
+}
@@ -0,0 +1,24 @@
+package com.vaadin.guice.sessions;
+
+import com.vaadin.guice.annotation.SharedAcrossSessions;
+import com.vaadin.server.RequestHandler;
+import com.vaadin.server.VaadinRequest;
+import com.vaadin.server.VaadinResponse;
+import com.vaadin.server.VaadinSession;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+@SharedAcrossSessions
+public class SharedRequestHandler implements RequestHandler {
+
+    public static final AtomicInteger instances = new AtomicInteger();
+
+    public SharedRequestHandler() {
+        instances.incrementAndGet();
+    }
+
+    @Override
+    public boolean handleRequest(VaadinSession session, VaadinRequest request, VaadinResponse response) {
+        return false;
+    }
+}
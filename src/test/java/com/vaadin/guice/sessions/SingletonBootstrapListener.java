@@ -0,0 +1,29 @@
+package com.vaadin.guice.sessions;
+
+import com.vaadin.server.BootstrapFragmentResponse;
+import com.vaadin.server.BootstrapListener;
+import com.vaadin.server.BootstrapPageResponse;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.inject.Singleton;
+
+@Singleton
+public class SingletonBootstrapListener implements BootstrapListener {
+
+    public static final AtomicInteger instances = new AtomicInteger();
+    public static final AtomicInteger fragmentsModified = new AtomicInteger();
+
+    public SingletonBootstrapListener() {
+        instances.incrementAndGet();
+    }
+
+    @Override
+    public void modifyBootstrapFragment(BootstrapFragmentResponse response) {
+        fragmentsModified.incrementAndGet();
+    }
+
+    @Override
+    public void modifyBootstrapPage(BootstrapPageResponse response) {
+    }
+}
@@ -0,0 +1,17 @@
+package com.vaadin.guice.sessions;
+
+import com.vaadin.server.RequestHandler;
+import com.vaadin.server.VaadinRequest;
+import com.vaadin.server.VaadinResponse;
+import com.vaadin.server.VaadinSession;
+
+import javax.inject.Singleton;
+
+@Singleton
+public class SingletonRequestHandler implements RequestHandler {
+
+    @Override
+    public boolean handleRequest(VaadinSession session, VaadinRequest request, VaadinResponse response) {
+        return false;
+    }
+}
@@ -0,0 +1,15 @@
+package com.vaadin.guice.singletons;
+
+import com.google.inject.Singleton;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Singleton
+public class CountingSingleton {
+
+    public static final AtomicInteger INSTANCES = new AtomicInteger();
+
+    public CountingSingleton() {
+        INSTANCES.incrementAndGet();
+    }
+}
@@ -0,0 +1,24 @@
+package com.vaadin.guice.singletons;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Singleton
+public class DependentSingleton {
+
+    public static final AtomicInteger INSTANCES = new AtomicInteger();
+
+    private final CountingSingleton countingSingleton;
+
+    @Inject
+    public DependentSingleton(CountingSingleton countingSingleton) {
+        this.countingSingleton = countingSingleton;
+        INSTANCES.incrementAndGet();
+    }
+
+    public CountingSingleton getCountingSingleton() {
+        return countingSingleton;
+    }
+}
@@ -0,0 +1,10 @@
+package com.vaadin.guice.singletons;
+
+import com.google.inject.AbstractModule;
+
+public class SingletonModule extends AbstractModule {
+    @Override
+    protected void configure() {
+        bind(DependentSingleton.class);
+    }
+}